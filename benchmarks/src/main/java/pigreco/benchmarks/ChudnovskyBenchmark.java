@@ -0,0 +1,51 @@
+package pigreco.benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Algoritmo di Chudnovsky con binary splitting, al variare delle cifre e dei thread
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChudnovskyBenchmark {
+
+    private static final MethodHandle CHUDNOVSKY =
+        Engine.method(Engine.CALCULATOR, "calculatePiChudnovskyCorrected", int.class, Engine.LISTENER);
+
+    @Param({"100", "1000", "10000", "100000", "1000000"})
+    public int digits;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private Object calculator;
+    private Object listener;
+
+    @Setup
+    public void setup() {
+        calculator = Engine.newCalculator(threads);
+        listener = Engine.silentListener();
+    }
+
+    @Benchmark
+    public Object chudnovsky() throws Throwable {
+        return (Object) CHUDNOVSKY.invokeExact(calculator, (Object) digits, listener);
+    }
+}
@@ -0,0 +1,89 @@
+package pigreco.benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Accesso al motore di calcolo dai benchmark
+ * Le classi del motore sono nel package di default, che non può essere importato:
+ * vengono caricate per nome e i metodi, anche privati, risolti una sola volta come MethodHandle
+ */
+final class Engine {
+
+    static final Class<?> CALCULATOR = load("PiCalculator");
+    static final Class<?> LISTENER = load("CalculationListener");
+    static final Class<?> DIGIT_SINK = load("DigitSink");
+    static final Class<?> RADIX_CONVERTER = load("RadixConverter");
+
+    private Engine() {
+    }
+
+    static Class<?> load(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Classe del motore non trovata: " + name, e);
+        }
+    }
+
+    /**
+     * Nuovo PiCalculator con il parallelismo indicato
+     */
+    static Object newCalculator(int parallelism) {
+        try {
+            Object calculator = CALCULATOR.getConstructor().newInstance();
+            CALCULATOR.getMethod("setParallelism", int.class).invoke(calculator, parallelism);
+            return calculator;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Metodo del motore, anche privato, con tipi generici (Object) per invokeExact
+     */
+    static MethodHandle method(Class<?> owner, String name, Class<?>... parameterTypes) {
+        try {
+            Method method = owner.getDeclaredMethod(name, parameterTypes);
+            method.setAccessible(true);
+            MethodHandle handle = MethodHandles.lookup().unreflect(method);
+            return handle.asType(MethodType.genericMethodType(handle.type().parameterCount()));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Metodo del motore non trovato: " + name, e);
+        }
+    }
+
+    /**
+     * Costruttore del motore con tipi generici (Object) per invokeExact
+     */
+    static MethodHandle constructor(Class<?> owner, Class<?>... parameterTypes) {
+        try {
+            Constructor<?> constructor = owner.getDeclaredConstructor(parameterTypes);
+            constructor.setAccessible(true);
+            MethodHandle handle = MethodHandles.lookup().unreflectConstructor(constructor);
+            return handle.asType(MethodType.genericMethodType(handle.type().parameterCount()));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Costruttore del motore non trovato: " + owner.getName(), e);
+        }
+    }
+
+    /**
+     * Listener che non interrompe mai il calcolo e ignora gli aggiornamenti
+     */
+    static Object silentListener() {
+        return Proxy.newProxyInstance(LISTENER.getClassLoader(), new Class<?>[] {LISTENER},
+            (proxy, method, args) -> method.getReturnType() == boolean.class ? Boolean.FALSE : null);
+    }
+
+    /**
+     * Destinazione che scarta le cifre ricevute
+     */
+    static Object discardingSink() {
+        return Proxy.newProxyInstance(DIGIT_SINK.getClassLoader(), new Class<?>[] {DIGIT_SINK},
+            (proxy, method, args) -> null);
+    }
+}
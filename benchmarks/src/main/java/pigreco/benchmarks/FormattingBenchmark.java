@@ -0,0 +1,81 @@
+package pigreco.benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.math.BigDecimal;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Formattazione del risultato: stringa completa e conversione in streaming a blocchi
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FormattingBenchmark {
+
+    private static final MethodHandle CHUDNOVSKY =
+        Engine.method(Engine.CALCULATOR, "calculatePiChudnovskyCorrected", int.class, Engine.LISTENER);
+
+    private static final MethodHandle FORMAT =
+        Engine.method(Engine.CALCULATOR, "formatPiToExactDigits", BigDecimal.class, int.class);
+
+    private static final MethodHandle NEW_CONVERTER =
+        Engine.constructor(Engine.RADIX_CONVERTER, ForkJoinPool.class);
+
+    private static final MethodHandle CONVERT =
+        Engine.method(Engine.RADIX_CONVERTER, "write", BigDecimal.class, int.class, Engine.DIGIT_SINK);
+
+    @Param({"100", "1000", "10000", "100000", "1000000"})
+    public int digits;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private Object calculator;
+    private Object pi;
+    private Object sink;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setup() throws Throwable {
+        calculator = Engine.newCalculator(threads);
+        pi = (Object) CHUDNOVSKY.invokeExact(calculator, (Object) digits, Engine.silentListener());
+        sink = Engine.discardingSink();
+        pool = threads > 1 ? new ForkJoinPool(threads) : null;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public Object formatString() throws Throwable {
+        return (Object) FORMAT.invokeExact(calculator, pi, (Object) digits);
+    }
+
+    @Benchmark
+    public Object radixConversion() throws Throwable {
+        Object converter = (Object) NEW_CONVERTER.invokeExact((Object) pool);
+        return (Object) CONVERT.invokeExact(converter, pi, (Object) digits, sink);
+    }
+}
@@ -0,0 +1,82 @@
+package pigreco.benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Formula di Machin e serie dell'arcotangente
+ * Confronta la serie di Taylor in virgola fissa con il binary splitting per arctan(1/5);
+ * le cifre predefinite arrivano a 10^5, 10^6 va richiesto esplicitamente con -p digits=1000000
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MachinBenchmark {
+
+    private static final MethodHandle MACHIN =
+        Engine.method(Engine.CALCULATOR, "calculatePiMachinCorrected", int.class, Engine.LISTENER);
+
+    private static final Class<?> FIXED_POINT_ARCTAN = Engine.load("FixedPointArctan");
+    private static final Class<?> ARCTAN_BINARY_SPLITTING = Engine.load("ArctanBinarySplitting");
+
+    private static final MethodHandle NEW_KERNEL = Engine.constructor(FIXED_POINT_ARCTAN, int.class);
+
+    private static final MethodHandle ARCTAN =
+        Engine.method(FIXED_POINT_ARCTAN, "arctan", long.class, Engine.LISTENER, double.class, double.class);
+
+    private static final MethodHandle NEW_SPLITTING =
+        Engine.constructor(ARCTAN_BINARY_SPLITTING, Engine.LISTENER, double.class, double.class, ForkJoinPool.class);
+
+    private static final MethodHandle SPLITTING =
+        Engine.method(ARCTAN_BINARY_SPLITTING, "compute", long[].class, int.class);
+
+    private static final long[] ONE_FIFTH = {5};
+
+    @Param({"100", "1000", "10000", "100000"})
+    public int digits;
+
+    private Object calculator;
+    private Object listener;
+    private Object kernel;
+    private Object splitting;
+
+    @Setup
+    public void setup() throws Throwable {
+        calculator = Engine.newCalculator(1);
+        listener = Engine.silentListener();
+        // Il kernel in virgola fissa riusa i propri array a ogni invocazione
+        kernel = (Object) NEW_KERNEL.invokeExact((Object) digits);
+        splitting = (Object) NEW_SPLITTING.invokeExact(listener, (Object) 0.0, (Object) 1.0, (Object) null);
+    }
+
+    @Benchmark
+    public Object machin() throws Throwable {
+        return (Object) MACHIN.invokeExact(calculator, (Object) digits, listener);
+    }
+
+    @Benchmark
+    public Object arctanOneFifth() throws Throwable {
+        return (Object) ARCTAN.invokeExact(kernel, (Object) 5L, listener, (Object) 0.0, (Object) 1.0);
+    }
+
+    @Benchmark
+    public Object arctanOneFifthBinarySplitting() throws Throwable {
+        return (Object) SPLITTING.invokeExact(splitting, (Object) ONE_FIFTH, (Object) digits);
+    }
+}
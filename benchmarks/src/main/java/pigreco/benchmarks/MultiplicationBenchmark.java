@@ -0,0 +1,78 @@
+package pigreco.benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Moltiplicazione NTT contro BigInteger.multiply, per operandi della stessa dimensione
+ * Serve a scegliere NttMultiplier.THRESHOLD_BITS: la NTT viene invocata senza soglia
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MultiplicationBenchmark {
+
+    private static final MethodHandle NTT = Engine.method(Engine.load("NttMultiplier"), "multiplyMagnitudes",
+                                                         BigInteger.class, BigInteger.class, boolean.class);
+
+    @Param({"262144", "1048576", "2097152", "4194304", "16777216"})
+    public int bits;
+
+    private BigInteger a;
+    private BigInteger b;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        a = new BigInteger(bits, random).setBit(bits - 1);
+        b = new BigInteger(bits, random).setBit(bits - 1);
+        pool = new ForkJoinPool();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public BigInteger bigInteger() {
+        return a.multiply(b);
+    }
+
+    @Benchmark
+    public Object ntt() throws Throwable {
+        return (Object) NTT.invokeExact((Object) a, (Object) b, (Object) false);
+    }
+
+    @Benchmark
+    public Object nttParallel() throws Throwable {
+        return pool.submit(() -> {
+            try {
+                return (Object) NTT.invokeExact((Object) a, (Object) b, (Object) false);
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }).get();
+    }
+}
@@ -0,0 +1,67 @@
+package pigreco.benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Radice quadrata di 10005 e divisione finale dell'algoritmo di Chudnovsky
+ * La divisione con il reciproco di Newton è confrontata con BigInteger.divideAndRemainder,
+ * per un dividendo di 2 * digits cifre e un divisore di digits cifre
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SqrtBenchmark {
+
+    private static final MethodHandle CONSTANT =
+        Engine.method(Engine.CALCULATOR, "chudnovskyConstant", int.class);
+
+    private static final MethodHandle DIVIDE =
+        Engine.method(Engine.load("NewtonIteration"), "divideAndRemainder", BigInteger.class, BigInteger.class);
+
+    @Param({"100", "1000", "10000", "100000", "1000000"})
+    public int digits;
+
+    private BigInteger dividend;
+    private BigInteger divisor;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        int bits = (int) (digits * Math.log(10) / Math.log(2));
+        dividend = new BigInteger(2 * bits, random);
+        divisor = new BigInteger(bits, random).setBit(bits - 1);
+    }
+
+    @Benchmark
+    public Object sqrt() throws Throwable {
+        return (Object) CONSTANT.invokeExact((Object) digits);
+    }
+
+    @Benchmark
+    public Object newtonDivision() throws Throwable {
+        return (Object) DIVIDE.invokeExact((Object) dividend, (Object) divisor);
+    }
+
+    @Benchmark
+    public BigInteger[] bigIntegerDivision() {
+        return dividend.divideAndRemainder(divisor);
+    }
+}
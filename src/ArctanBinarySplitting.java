@@ -0,0 +1,208 @@
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Motore binary splitting per arctan(1/x) con aritmetica intera esatta
+ * arctan(1/x) = (1/x) * Σ(k=0 to ∞) (-1)^k / ((2k+1) * x^(2k))
+ * Più arcotangenti vengono valutate contemporaneamente come task separati del ForkJoinPool
+ */
+public class ArctanBinarySplitting {
+
+    // Sotto questa ampiezza l'intervallo viene valutato in modo sequenziale
+    private static final long PARALLEL_TERMS_THRESHOLD = 512;
+
+    private final CalculationListener callback;
+    private final double progressStart;
+    private final double progressEnd;
+    private final ForkJoinPool pool;
+    private long totalTerms;
+    private final AtomicLong completedTerms = new AtomicLong();
+    private final AtomicInteger lastReportedPercent = new AtomicInteger();
+
+    // Bit del più grande operando dell'ultimo calcolo (il numeratore della divisione finale)
+    private final AtomicLong peakOperandBits = new AtomicLong();
+
+    /**
+     * @param pool pool per la valutazione parallela, null per la valutazione sequenziale
+     */
+    public ArctanBinarySplitting(CalculationListener callback, double progressStart, double progressEnd, ForkJoinPool pool) {
+        this.callback = callback;
+        this.progressStart = progressStart;
+        this.progressEnd = progressEnd;
+        this.pool = pool;
+    }
+
+    /**
+     * Risultato del binary splitting su un intervallo di termini: la somma parziale è T / (B * Q)
+     */
+    static final class Result {
+        final BigInteger p;
+        final BigInteger q;
+        final BigInteger b;
+        final BigInteger t;
+
+        Result(BigInteger p, BigInteger q, BigInteger b, BigInteger t) {
+            this.p = p;
+            this.q = q;
+            this.b = b;
+            this.t = t;
+        }
+    }
+
+    /**
+     * Numero di termini necessari per ottenere le cifre decimali richieste
+     */
+    public static long termsFor(long x, int digits) {
+        return (long) (digits / (2 * Math.log10(x))) + 2;
+    }
+
+    /**
+     * Calcola arctan(1/x_i) * 10^digits, troncato, per tutti i denominatori
+     * Con un pool le arcotangenti vengono valutate contemporaneamente.
+     * Lancia CancellationException se il calcolo viene fermato
+     */
+    public BigInteger[] compute(long[] denominators, int digits) {
+        totalTerms = 0;
+        for (long x : denominators) {
+            totalTerms += termsFor(x, digits);
+        }
+        completedTerms.set(0);
+        lastReportedPercent.set(0);
+        peakOperandBits.set(0);
+
+        BigInteger[] results = new BigInteger[denominators.length];
+        if (pool == null || pool.getParallelism() <= 1) {
+            for (int i = 0; i < denominators.length; i++) {
+                results[i] = arctan(denominators[i], digits);
+            }
+            return results;
+        }
+
+        List<ForkJoinTask<BigInteger>> tasks = new ArrayList<>();
+        for (long x : denominators) {
+            tasks.add(pool.submit(() -> arctan(x, digits)));
+        }
+        for (int i = 0; i < results.length; i++) {
+            results[i] = tasks.get(i).join();
+        }
+        return results;
+    }
+
+    /**
+     * Bit del più grande operando dell'ultimo calcolo
+     */
+    public long getPeakOperandBits() {
+        return peakOperandBits.get();
+    }
+
+    /**
+     * arctan(1/x) * 10^digits = T * 10^digits / (B * Q * x), con una sola divisione finale verificata
+     */
+    private BigInteger arctan(long x, int digits) {
+        long terms = termsFor(x, digits);
+        BigInteger bigX = BigInteger.valueOf(x);
+        BigInteger xSquared = bigX.multiply(bigX);
+
+        Result series;
+        if (pool == null || pool.getParallelism() <= 1) {
+            series = split(xSquared, 0, terms);
+        } else {
+            series = new SplitTask(xSquared, 0, terms).invoke();
+        }
+
+        BigInteger numerator = NttMultiplier.multiply(series.t, NttMultiplier.pow(BigInteger.valueOf(5), digits).shiftLeft(digits));
+        BigInteger denominator = NttMultiplier.multiply(series.b, series.q).multiply(bigX);
+        peakOperandBits.accumulateAndGet(numerator.bitLength(), Math::max);
+        BigInteger[] quotient = NewtonIteration.divideAndRemainder(numerator, denominator);
+        ModularChecksum.verifyDivision(numerator, denominator, quotient[0], quotient[1]);
+        return quotient[0];
+    }
+
+    private Result split(BigInteger xSquared, long a, long b) {
+        if (b - a == 1) {
+            return leaf(xSquared, a);
+        }
+        if (callback.isStopped()) {
+            throw new CancellationException();
+        }
+
+        long m = (a + b) / 2;
+        Result left = split(xSquared, a, m);
+        Result right = split(xSquared, m, b);
+        return combine(left, right);
+    }
+
+    /**
+     * Termine singolo: p(k) = -1, q(k) = x^2, b(k) = 2k+1, T = p(k); il termine 0 vale 1
+     */
+    private Result leaf(BigInteger xSquared, long k) {
+        Result result;
+        if (k == 0) {
+            result = new Result(BigInteger.ONE, BigInteger.ONE, BigInteger.ONE, BigInteger.ONE);
+        } else {
+            BigInteger minusOne = BigInteger.ONE.negate();
+            result = new Result(minusOne, xSquared, BigInteger.valueOf(2 * k + 1), minusOne);
+        }
+
+        // Aggiorna progresso solo quando cambia la percentuale
+        int percent = (int) (completedTerms.incrementAndGet() * 100 / totalTerms);
+        int last = lastReportedPercent.get();
+        if (percent > last && lastReportedPercent.compareAndSet(last, percent)) {
+            callback.onProgress(progressStart + (progressEnd - progressStart) * percent / 100.0);
+        }
+        return result;
+    }
+
+    /**
+     * Unisce due intervalli adiacenti [a, m) e [m, b):
+     * P = P1*P2, Q = Q1*Q2, B = B1*B2, T = B2*Q2*T1 + B1*P1*T2
+     */
+    static Result combine(Result left, Result right) {
+        BigInteger p = NttMultiplier.multiply(left.p, right.p);
+        BigInteger q = NttMultiplier.multiply(left.q, right.q);
+        BigInteger b = NttMultiplier.multiply(left.b, right.b);
+        BigInteger t = NttMultiplier.multiply(NttMultiplier.multiply(right.b, right.q), left.t)
+                .add(NttMultiplier.multiply(NttMultiplier.multiply(left.b, left.p), right.t));
+        return new Result(p, q, b, t);
+    }
+
+    /**
+     * Sottoalbero valutato come task fork/join
+     */
+    private final class SplitTask extends RecursiveTask<Result> {
+        private static final long serialVersionUID = 1L;
+
+        private final BigInteger xSquared;
+        private final long a;
+        private final long b;
+
+        SplitTask(BigInteger xSquared, long a, long b) {
+            this.xSquared = xSquared;
+            this.a = a;
+            this.b = b;
+        }
+
+        @Override
+        protected Result compute() {
+            if (b - a <= PARALLEL_TERMS_THRESHOLD) {
+                return split(xSquared, a, b);
+            }
+            if (callback.isStopped()) {
+                throw new CancellationException();
+            }
+
+            long m = (a + b) / 2;
+            SplitTask right = new SplitTask(xSquared, m, b);
+            right.fork();
+            Result left = new SplitTask(xSquared, a, m).compute();
+            return combine(left, right.join());
+        }
+    }
+}
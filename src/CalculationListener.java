@@ -0,0 +1,31 @@
+/**
+ * Listener per aggiornamenti e annullamento del calcolo
+ * Interfaccia indipendente da JavaFX: il motore di calcolo può essere eseguito senza interfaccia grafica
+ */
+public interface CalculationListener {
+    
+    /**
+     * Avanzamento del calcolo, tra 0.0 e 1.0
+     */
+    void onProgress(double progress);
+    
+    /**
+     * Valore parziale di Pi Greco
+     */
+    void onDigitsUpdate(String piValue);
+    
+    /**
+     * Valore finale di Pi Greco
+     */
+    void onComplete(String finalValue);
+    
+    /**
+     * Calcolo terminato con un errore
+     */
+    void onError(String error);
+    
+    /**
+     * Indica se il calcolo deve essere interrotto
+     */
+    boolean isStopped();
+}
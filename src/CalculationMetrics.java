@@ -0,0 +1,268 @@
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Metriche di un singolo calcolo: durata di ogni fase, termini valutati, memoria allocata
+ * e dimensione massima degli operandi
+ * Le fasi possono essere registrate da più thread; le velocità sono calcolate alla lettura.
+ * La memoria allocata è la somma dei contatori per thread della JVM tra inizio e fine del calcolo:
+ * comprende gli altri thread attivi nello stesso intervallo, e vale -1 se la JVM non la misura
+ */
+public final class CalculationMetrics {
+
+    /**
+     * Fasi del calcolo, con il nome usato nel JSON
+     */
+    public enum Phase {
+        SERIES("series"),
+        SQRT("sqrt"),
+        DIVISION("division"),
+        RADIX_CONVERSION("radixConversion"),
+        OUTPUT("output");
+
+        private final String key;
+
+        Phase(String key) {
+            this.key = key;
+        }
+
+        public String key() {
+            return key;
+        }
+    }
+
+    public static final String OUTCOME_COMPLETED = "completed";
+    public static final String OUTCOME_STOPPED = "stopped";
+    public static final String OUTCOME_FAILED = "failed";
+
+    private final String algorithm;
+    private final int digits;
+    private final int threads;
+    private final Instant start = Instant.now();
+    private final long startNanos = System.nanoTime();
+    private final long startAllocatedBytes = allocatedBytes();
+
+    private final AtomicLongArray phaseNanos = new AtomicLongArray(Phase.values().length);
+    private final AtomicLong terms = new AtomicLong();
+    private final AtomicLong peakOperandBytes = new AtomicLong();
+
+    private volatile long totalNanos = -1;
+    private volatile long allocated = -1;
+    private volatile String outcome;
+
+    public CalculationMetrics(String algorithm, int digits, int threads) {
+        this.algorithm = algorithm;
+        this.digits = digits;
+        this.threads = threads;
+    }
+
+    /**
+     * Aggiunge alla fase il tempo trascorso da begin (System.nanoTime())
+     */
+    public void endPhase(Phase phase, long begin) {
+        addPhaseNanos(phase, System.nanoTime() - begin);
+    }
+
+    /**
+     * Aggiunge alla fase il tempo trascorso da begin, escluso quello registrato nel frattempo
+     * nella fase annidata nested, che valeva nestedBefore all'inizio
+     */
+    public void endPhase(Phase phase, long begin, Phase nested, long nestedBefore) {
+        addPhaseNanos(phase, System.nanoTime() - begin - (getPhaseNanos(nested) - nestedBefore));
+    }
+
+    public void addPhaseNanos(Phase phase, long nanos) {
+        phaseNanos.addAndGet(phase.ordinal(), nanos);
+    }
+
+    public void addTerms(long count) {
+        terms.addAndGet(count);
+    }
+
+    /**
+     * Registra un operando di bits bit: viene mantenuto il massimo
+     */
+    public void recordOperandBits(long bits) {
+        peakOperandBytes.accumulateAndGet((bits + 7) / 8, Math::max);
+    }
+
+    /**
+     * Chiude le misure; le chiamate successive non hanno effetto
+     */
+    public synchronized void finish(String outcome) {
+        if (this.outcome != null) {
+            return;
+        }
+        totalNanos = System.nanoTime() - startNanos;
+        long end = allocatedBytes();
+        allocated = startAllocatedBytes < 0 || end < 0 ? -1 : end - startAllocatedBytes;
+        this.outcome = outcome;
+    }
+
+    /**
+     * Destinazione che inoltra le cifre a sink e ne misura il tempo nella fase OUTPUT
+     */
+    public DigitSink timed(DigitSink sink) {
+        return new DigitSink() {
+            @Override
+            public void begin(String integerPart, long count) throws IOException {
+                long begin = System.nanoTime();
+                sink.begin(integerPart, count);
+                endPhase(Phase.OUTPUT, begin);
+            }
+
+            @Override
+            public void write(byte[] block, int offset, int length) throws IOException {
+                long begin = System.nanoTime();
+                sink.write(block, offset, length);
+                endPhase(Phase.OUTPUT, begin);
+            }
+
+            @Override
+            public void end() throws IOException {
+                long begin = System.nanoTime();
+                sink.end();
+                endPhase(Phase.OUTPUT, begin);
+            }
+        };
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public int getDigits() {
+        return digits;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public Instant getStart() {
+        return start;
+    }
+
+    /**
+     * Esito del calcolo (OUTCOME_*), null se non è ancora concluso
+     */
+    public String getOutcome() {
+        return outcome;
+    }
+
+    public long getPhaseNanos(Phase phase) {
+        return phaseNanos.get(phase.ordinal());
+    }
+
+    /**
+     * Durata complessiva; per un calcolo in corso, il tempo trascorso finora
+     */
+    public long getTotalNanos() {
+        long total = totalNanos;
+        return total >= 0 ? total : System.nanoTime() - startNanos;
+    }
+
+    public long getTerms() {
+        return terms.get();
+    }
+
+    /**
+     * Termini della serie valutati al secondo, nel tempo della fase SERIES
+     */
+    public double getTermsPerSecond() {
+        long series = getPhaseNanos(Phase.SERIES);
+        return series > 0 ? getTerms() * 1e9 / series : 0;
+    }
+
+    /**
+     * Cifre prodotte al secondo, sulla durata complessiva
+     */
+    public double getDigitsPerSecond() {
+        long total = getTotalNanos();
+        return total > 0 ? digits * 1e9 / total : 0;
+    }
+
+    public long getAllocatedBytes() {
+        return allocated;
+    }
+
+    public long getPeakOperandBytes() {
+        return peakOperandBytes.get();
+    }
+
+    /**
+     * Metriche in formato JSON, su una sola riga
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder(512);
+        json.append('{');
+        json.append("\"algorithm\":").append(quote(algorithm)).append(',');
+        json.append("\"digits\":").append(digits).append(',');
+        json.append("\"threads\":").append(threads).append(',');
+        json.append("\"outcome\":").append(quote(outcome)).append(',');
+        json.append("\"start\":\"").append(start).append("\",");
+        json.append("\"totalMillis\":").append(millis(getTotalNanos())).append(',');
+        json.append("\"phasesMillis\":{");
+        for (Phase phase : Phase.values()) {
+            if (phase.ordinal() > 0) {
+                json.append(',');
+            }
+            json.append('"').append(phase.key()).append("\":").append(millis(getPhaseNanos(phase)));
+        }
+        json.append("},");
+        json.append("\"terms\":").append(getTerms()).append(',');
+        json.append("\"termsPerSecond\":").append(String.format(Locale.ROOT, "%.1f", getTermsPerSecond())).append(',');
+        json.append("\"digitsPerSecond\":").append(String.format(Locale.ROOT, "%.1f", getDigitsPerSecond())).append(',');
+        json.append("\"allocatedBytes\":").append(getAllocatedBytes()).append(',');
+        json.append("\"peakOperandBytes\":").append(getPeakOperandBytes());
+        json.append('}');
+        return json.toString();
+    }
+
+    private static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+    }
+
+    /**
+     * Byte allocati finora da tutti i thread vivi, -1 se la JVM non li misura
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) threads;
+        if (!hotspot.isThreadAllocatedMemorySupported() || !hotspot.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+        long total = 0;
+        for (long bytes : hotspot.getThreadAllocatedBytes(hotspot.getAllThreadIds())) {
+            if (bytes > 0) {
+                total += bytes;
+            }
+        }
+        return total;
+    }
+}
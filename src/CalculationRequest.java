@@ -0,0 +1,101 @@
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Richiesta di calcolo per CalculationScheduler: algoritmo, cifre, priorità, scadenza
+ * e file di destinazione facoltativo
+ * Due richieste con stesso algoritmo, cifre e destinazione sono identiche e condividono
+ * un solo calcolo, qualunque siano priorità e scadenza
+ */
+public final class CalculationRequest {
+
+    public static final int DEFAULT_PRIORITY = 0;
+
+    private final String algorithm;
+    private final int digits;
+    private final int priority;
+    private final Instant deadline;
+    private final Path output;
+    private final int digitsPerLine;
+    private final int groupSize;
+
+    public CalculationRequest(String algorithm, int digits) {
+        this(algorithm, digits, DEFAULT_PRIORITY, null);
+    }
+
+    /**
+     * @param priority le richieste con priorità più alta vengono eseguite per prime
+     * @param deadline istante oltre il quale la richiesta viene annullata, null = nessuna scadenza
+     */
+    public CalculationRequest(String algorithm, int digits, int priority, Instant deadline) {
+        this(algorithm, digits, priority, deadline, null, 0, 0);
+    }
+
+    private CalculationRequest(String algorithm, int digits, int priority, Instant deadline,
+                               Path output, int digitsPerLine, int groupSize) {
+        if (algorithm == null) {
+            throw new IllegalArgumentException("Algoritmo non specificato");
+        }
+        if (digitsPerLine < 0 || groupSize < 0) {
+            throw new IllegalArgumentException("Formato di output non valido");
+        }
+        this.algorithm = algorithm;
+        this.digits = digits;
+        this.priority = priority;
+        this.deadline = deadline;
+        this.output = output;
+        this.digitsPerLine = digitsPerLine;
+        this.groupSize = groupSize;
+    }
+
+    /**
+     * Stessa richiesta, con le cifre scritte in streaming nel file indicato (DigitWriter)
+     * Il risultato del job è allora solo un'anteprima, come per PiCalculator.calculatePi con destinazione
+     */
+    public CalculationRequest withOutput(Path output, int digitsPerLine, int groupSize) {
+        return new CalculationRequest(algorithm, digits, priority, deadline, output, digitsPerLine, groupSize);
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public int getDigits() {
+        return digits;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public Instant getDeadline() {
+        return deadline;
+    }
+
+    public Path getOutput() {
+        return output;
+    }
+
+    public int getDigitsPerLine() {
+        return digitsPerLine;
+    }
+
+    public int getGroupSize() {
+        return groupSize;
+    }
+
+    /**
+     * Chiave del calcolo: uguale per le richieste che producono lo stesso risultato
+     */
+    List<Object> calculationKey() {
+        return Arrays.asList(algorithm, digits, output, digitsPerLine, groupSize);
+    }
+
+    @Override
+    public String toString() {
+        return algorithm + " - " + digits + " cifre - priorità " + priority
+               + (deadline != null ? " - scadenza " + deadline : "");
+    }
+}
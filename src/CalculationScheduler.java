@@ -0,0 +1,364 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coda di calcoli eseguiti su un PiCalculator condiviso
+ * Al più maxConcurrentCalculations calcoli sono in esecuzione insieme, sul pool del calcolatore;
+ * gli altri attendono in ordine di priorità e, a parità, di arrivo. Una richiesta identica a un
+ * calcolo in coda o in esecuzione vi si aggiunge e ne riceve lo stesso risultato (alzandone la
+ * priorità se in coda). Ogni richiesta ha il proprio Job: annullarlo o superarne la scadenza non
+ * ferma il calcolo per gli altri job, che si ferma solo quando non ne resta nessuno attivo
+ */
+public final class CalculationScheduler implements AutoCloseable {
+
+    /**
+     * Stato di un job
+     */
+    public enum State {
+        QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED, EXPIRED;
+
+        public boolean isDone() {
+            return this != QUEUED && this != RUNNING;
+        }
+    }
+
+    private final PiCalculator calculator;
+    private final ThreadPoolExecutor executor;
+    private final ScheduledThreadPoolExecutor deadlines;
+    private final AtomicLong sequence = new AtomicLong();
+
+    // Calcoli in coda o in esecuzione, per chiave (CalculationRequest.calculationKey)
+    private final Map<List<Object>, Calculation> calculations = new HashMap<>();
+    private boolean closed;
+
+    /**
+     * @param calculator calcolatore condiviso, già configurato (thread, archivio, metriche)
+     * @param maxConcurrentCalculations calcoli eseguiti contemporaneamente
+     */
+    public CalculationScheduler(PiCalculator calculator, int maxConcurrentCalculations) {
+        if (maxConcurrentCalculations < 1) {
+            throw new IllegalArgumentException("Numero di calcoli contemporanei non valido: " + maxConcurrentCalculations);
+        }
+        this.calculator = calculator;
+        this.executor = new ThreadPoolExecutor(maxConcurrentCalculations, maxConcurrentCalculations, 0, TimeUnit.MILLISECONDS,
+                                               new PriorityBlockingQueue<>(), daemonThreads("pi-job"));
+        this.deadlines = new ScheduledThreadPoolExecutor(1, daemonThreads("pi-deadline"));
+        this.deadlines.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Accoda una richiesta; listener (facoltativo) riceve avanzamento e risultato del job
+     * Un job annullato non riceve altri eventi; un job scaduto riceve onError
+     */
+    public Job submit(CalculationRequest request, CalculationListener listener) {
+        Job job = new Job(request, listener);
+        Calculation started = null;
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("Scheduler chiuso");
+            }
+            List<Object> key = request.calculationKey();
+            Calculation calculation = calculations.get(key);
+            if (calculation == null) {
+                calculation = new Calculation(key, request);
+                calculations.put(key, calculation);
+                started = calculation;
+            } else if (calculation.state == State.QUEUED && request.getPriority() > calculation.priority) {
+                // Il calcolo torna in coda con la nuova priorità
+                if (executor.getQueue().remove(calculation)) {
+                    started = calculation;
+                }
+                calculation.priority = request.getPriority();
+            }
+            job.calculation = calculation;
+            job.state = calculation.state;
+            calculation.jobs.add(job);
+        }
+        if (started != null) {
+            executor.execute(started);
+        }
+        if (request.getDeadline() != null) {
+            long delay = request.getDeadline().toEpochMilli() - System.currentTimeMillis();
+            job.deadline = deadlines.schedule(() -> finish(job, State.EXPIRED, null, "Scadenza superata"),
+                                              Math.max(0, delay), TimeUnit.MILLISECONDS);
+        }
+        return job;
+    }
+
+    /**
+     * Job in coda
+     */
+    public synchronized int getQueuedCount() {
+        return count(State.QUEUED);
+    }
+
+    /**
+     * Job il cui calcolo è in esecuzione
+     */
+    public synchronized int getRunningCount() {
+        return count(State.RUNNING);
+    }
+
+    private int count(State state) {
+        int count = 0;
+        for (Calculation calculation : calculations.values()) {
+            if (calculation.state == state) {
+                count += calculation.jobs.size();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Annulla tutti i job e ferma i calcoli in corso; non accetta nuove richieste
+     */
+    @Override
+    public void close() {
+        List<Job> jobs = new ArrayList<>();
+        synchronized (this) {
+            closed = true;
+            for (Calculation calculation : calculations.values()) {
+                jobs.addAll(calculation.jobs);
+            }
+        }
+        for (Job job : jobs) {
+            job.cancel();
+        }
+        executor.shutdown();
+        deadlines.shutdownNow();
+    }
+
+    /**
+     * Porta il job in uno stato finale e lo notifica; senza più job attivi il calcolo viene fermato
+     * Restituisce false se il job era già concluso
+     */
+    private boolean finish(Job job, State state, String result, String error) {
+        synchronized (this) {
+            if (job.state.isDone()) {
+                return false;
+            }
+            job.state = state;
+            Calculation calculation = job.calculation;
+            calculation.jobs.remove(job);
+            if (calculation.jobs.isEmpty() && !calculation.state.isDone()) {
+                // Nessuno attende più il risultato: un nuovo job identico avvierà un nuovo calcolo
+                calculation.stopped = true;
+                calculations.remove(calculation.key);
+                executor.getQueue().remove(calculation);
+            }
+        }
+        if (job.deadline != null) {
+            job.deadline.cancel(false);
+        }
+        CalculationListener listener = job.listener;
+        switch (state) {
+            case COMPLETED:
+                job.result.complete(result);
+                if (listener != null) {
+                    listener.onComplete(result);
+                }
+                break;
+            case CANCELLED:
+                job.result.completeExceptionally(new CancellationException("Calcolo annullato"));
+                break;
+            case EXPIRED:
+                job.result.completeExceptionally(new TimeoutException(error));
+                if (listener != null) {
+                    listener.onError(error);
+                }
+                break;
+            default:
+                job.result.completeExceptionally(new RuntimeException(error));
+                if (listener != null) {
+                    listener.onError(error);
+                }
+                break;
+        }
+        return true;
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicLong count = new AtomicLong();
+        return task -> {
+            Thread thread = new Thread(task, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Singola richiesta accodata; più job possono condividere lo stesso calcolo
+     */
+    public final class Job {
+        private final CalculationRequest request;
+        private final CalculationListener listener;
+        private final CompletableFuture<String> result = new CompletableFuture<>();
+        private Calculation calculation;
+        private volatile State state = State.QUEUED;
+        private volatile ScheduledFuture<?> deadline;
+
+        private Job(CalculationRequest request, CalculationListener listener) {
+            this.request = request;
+            this.listener = listener;
+        }
+
+        public CalculationRequest getRequest() {
+            return request;
+        }
+
+        public State getState() {
+            return state;
+        }
+
+        /**
+         * Risultato del job, come quello passato a onComplete
+         * Un job annullato termina con CancellationException, uno scaduto con TimeoutException
+         */
+        public CompletableFuture<String> getResult() {
+            return result;
+        }
+
+        /**
+         * Annulla il job; restituisce false se era già concluso
+         */
+        public boolean cancel() {
+            return finish(this, State.CANCELLED, null, null);
+        }
+    }
+
+    /**
+     * Calcolo condiviso dai job con la stessa chiave
+     * Inoltra l'avanzamento a tutti i job attivi e si ferma quando non ne restano
+     */
+    private final class Calculation implements Runnable, Comparable<Calculation>, CalculationListener {
+        private final List<Object> key;
+        private final CalculationRequest request;
+        private final long order = sequence.incrementAndGet();
+        private final List<Job> jobs = new ArrayList<>();
+        private int priority;
+        private State state = State.QUEUED;
+        private volatile boolean stopped;
+        private volatile String value;
+        private volatile String error;
+
+        Calculation(List<Object> key, CalculationRequest request) {
+            this.key = key;
+            this.request = request;
+            this.priority = request.getPriority();
+        }
+
+        @Override
+        public int compareTo(Calculation other) {
+            if (priority != other.priority) {
+                return Integer.compare(other.priority, priority);
+            }
+            return Long.compare(order, other.order);
+        }
+
+        @Override
+        public void run() {
+            synchronized (CalculationScheduler.this) {
+                if (stopped) {
+                    return;
+                }
+                state = State.RUNNING;
+                for (Job job : jobs) {
+                    job.state = State.RUNNING;
+                }
+            }
+            try {
+                calculate();
+            } catch (IOException | RuntimeException e) {
+                error = e.getMessage();
+            }
+
+            List<Job> waiting;
+            synchronized (CalculationScheduler.this) {
+                state = value != null ? State.COMPLETED : error != null ? State.FAILED : State.CANCELLED;
+                calculations.remove(key, this);
+                waiting = new ArrayList<>(jobs);
+            }
+            for (Job job : waiting) {
+                finish(job, state, value, error);
+            }
+        }
+
+        private void calculate() throws IOException {
+            String algorithm = request.getAlgorithm();
+            int digits = request.getDigits();
+            Path output = request.getOutput();
+            if (PiCalculator.ALGORITHM_CROSS_VALIDATION.equals(algorithm)) {
+                if (output != null) {
+                    throw new IllegalArgumentException("La validazione incrociata non scrive le cifre su file");
+                }
+                calculator.calculatePiWithCrossValidation(digits, this);
+            } else if (output != null) {
+                Path parent = output.toAbsolutePath().getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+                try (DigitWriter writer = DigitWriter.open(output, request.getDigitsPerLine(), request.getGroupSize())) {
+                    calculator.calculatePi(algorithm, digits, this, writer);
+                }
+            } else {
+                calculator.calculatePi(algorithm, digits, this);
+            }
+        }
+
+        private List<CalculationListener> listeners() {
+            List<CalculationListener> listeners = new ArrayList<>();
+            synchronized (CalculationScheduler.this) {
+                for (Job job : jobs) {
+                    if (job.listener != null) {
+                        listeners.add(job.listener);
+                    }
+                }
+            }
+            return listeners;
+        }
+
+        @Override
+        public void onProgress(double progress) {
+            for (CalculationListener listener : listeners()) {
+                listener.onProgress(progress);
+            }
+        }
+
+        @Override
+        public void onDigitsUpdate(String piValue) {
+            for (CalculationListener listener : listeners()) {
+                listener.onDigitsUpdate(piValue);
+            }
+        }
+
+        @Override
+        public void onComplete(String finalValue) {
+            value = finalValue;
+        }
+
+        @Override
+        public void onError(String error) {
+            this.error = error;
+        }
+
+        @Override
+        public boolean isStopped() {
+            return stopped;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Checkpoint su disco del binary splitting di una serie ipergeometrica (Chudnovsky per π)
+ * Contiene i prodotti parziali P, Q, T di intervalli di termini consecutivi a partire da 0:
+ * dipendono solo dall'intervallo, quindi un calcolo interrotto può riprendere dal primo termine
+ * non coperto, anche con un numero di cifre diverso purché maggiore.
+ * Il file viene sostituito in modo atomico: un'interruzione durante il salvataggio
+ * lascia intatto il checkpoint precedente.
+ *
+ * Formato del file: magic "PICK", versione (int), nome della serie (UTF), numero di intervalli (int),
+ * seguiti per ogni intervallo da inizio e fine (long) e da P, Q, T (lunghezza in byte e complemento a due).
+ * I file della versione 1, senza nome della serie, contengono la serie di Chudnovsky
+ */
+public class Checkpoint {
+
+    private static final int MAGIC = 0x5049434B; // "PICK"
+    private static final int VERSION = 2;
+    private static final int VERSION_CHUDNOVSKY = 1;
+
+    private final Path file;
+
+    public Checkpoint(Path file) {
+        this.file = file;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Intervallo di termini [start, end) con i relativi prodotti parziali
+     */
+    public static final class Segment {
+        final long start;
+        final long end;
+        final HypergeometricBinarySplitting.Result result;
+
+        Segment(long start, long end, HypergeometricBinarySplitting.Result result) {
+            this.start = start;
+            this.end = end;
+            this.result = result;
+        }
+    }
+
+    /**
+     * Legge gli intervalli salvati per la serie indicata, in ordine
+     * Un file assente, non riconosciuto o di un'altra serie viene trattato come checkpoint vuoto
+     */
+    public synchronized List<Segment> load(String series) {
+        if (!Files.isRegularFile(file)) {
+            return Collections.emptyList();
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            long size = Files.size(file);
+            if (in.readInt() != MAGIC) {
+                return Collections.emptyList();
+            }
+            int version = in.readInt();
+            String savedSeries;
+            if (version == VERSION) {
+                savedSeries = in.readUTF();
+            } else if (version == VERSION_CHUDNOVSKY) {
+                savedSeries = HypergeometricSeries.PI.getName();
+            } else {
+                return Collections.emptyList();
+            }
+            if (!savedSeries.equals(series)) {
+                return Collections.emptyList();
+            }
+            int count = in.readInt();
+            if (count < 0) {
+                return Collections.emptyList();
+            }
+            List<Segment> segments = new ArrayList<>();
+            long expectedStart = 0;
+            for (int i = 0; i < count; i++) {
+                long start = in.readLong();
+                long end = in.readLong();
+                if (start != expectedStart || end <= start) {
+                    return Collections.emptyList();
+                }
+                BigInteger p = readInteger(in, size);
+                BigInteger q = readInteger(in, size);
+                BigInteger t = readInteger(in, size);
+                segments.add(new Segment(start, end, new HypergeometricBinarySplitting.Result(p, q, t)));
+                expectedStart = end;
+            }
+            return segments;
+        } catch (IOException e) {
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Salva gli intervalli della serie indicata, che devono essere consecutivi a partire dal termine 0
+     */
+    public synchronized void save(String series, List<Segment> segments) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(series);
+                out.writeInt(segments.size());
+                for (Segment segment : segments) {
+                    out.writeLong(segment.start);
+                    out.writeLong(segment.end);
+                    writeInteger(out, segment.result.p);
+                    writeInteger(out, segment.result.q);
+                    writeInteger(out, segment.result.t);
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Elimina il checkpoint, a calcolo concluso
+     */
+    public synchronized void delete() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    private static BigInteger readInteger(DataInputStream in, long size) throws IOException {
+        int length = in.readInt();
+        if (length <= 0 || length > size) {
+            throw new IOException("Checkpoint non valido");
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new BigInteger(bytes);
+    }
+
+    private static void writeInteger(DataOutputStream out, BigInteger value) throws IOException {
+        byte[] bytes = value.toByteArray();
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
@@ -0,0 +1,274 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Archivio su disco delle cifre già calcolate
+ * Le cifre decimali sono salvate in formato decimale impaccato (due cifre per byte) e lette
+ * tramite MappedByteBuffer: una richiesta di N cifre con N minore o uguale alle cifre archiviate
+ * viene servita senza alcun calcolo. Le cifre sono indipendenti dall'algoritmo usato.
+ *
+ * Formato del file: magic "PIDC", versione (int), parte intera (long), numero di cifre (long),
+ * seguiti dalle cifre decimali impaccate, la prima nel semibyte alto
+ */
+public class DigitCache {
+
+    private static final int MAGIC = 0x50494443; // "PIDC"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 24;
+
+    // Dimensione massima di un singolo segmento mappato in memoria
+    private static final long SEGMENT_SIZE = 1L << 30;
+
+    // Coppie di caratteri per ogni byte impaccato
+    private static final char[] PACKED_TO_CHARS = new char[512];
+
+    static {
+        for (int b = 0; b < 256; b++) {
+            PACKED_TO_CHARS[2 * b] = (char) ('0' + (b >>> 4));
+            PACKED_TO_CHARS[2 * b + 1] = (char) ('0' + (b & 0x0F));
+        }
+    }
+
+    private final Path file;
+    private MappedByteBuffer[] segments;
+    private long integerPart;
+    private long cachedDigits;
+    private long mappedModified = Long.MIN_VALUE;
+
+    public DigitCache(Path file) {
+        this.file = file;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Numero di cifre decimali disponibili nell'archivio
+     */
+    public synchronized long cachedDigits() {
+        refresh();
+        return cachedDigits;
+    }
+
+    /**
+     * Legge le prime digits cifre decimali, nel formato "3.1415..."
+     * Restituisce null se l'archivio contiene meno cifre di quelle richieste
+     */
+    public synchronized String read(int digits) {
+        refresh();
+        if (segments == null || digits > cachedDigits) {
+            return null;
+        }
+
+        String prefix = Long.toString(integerPart) + ".";
+        char[] chars = new char[prefix.length() + digits];
+        prefix.getChars(0, prefix.length(), chars, 0);
+
+        int pos = prefix.length();
+        int fullBytes = digits / 2;
+        for (int i = 0; i < fullBytes; i++) {
+            int b = byteAt(i) & 0xFF;
+            chars[pos++] = PACKED_TO_CHARS[2 * b];
+            chars[pos++] = PACKED_TO_CHARS[2 * b + 1];
+        }
+        if (digits % 2 == 1) {
+            chars[pos] = PACKED_TO_CHARS[2 * (byteAt(fullBytes) & 0xFF)];
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Copia le prime digits cifre nella destinazione indicata, a blocchi
+     * Restituisce false se l'archivio contiene meno cifre di quelle richieste
+     */
+    public synchronized boolean copyTo(DigitSink sink, long digits) throws IOException {
+        refresh();
+        if (segments == null || digits > cachedDigits) {
+            return false;
+        }
+
+        sink.begin(Long.toString(integerPart), digits);
+        byte[] chunk = new byte[DigitSink.CHUNK_SIZE];
+        long index = 0;
+        while (index < digits) {
+            int length = (int) Math.min(chunk.length, digits - index);
+            for (int i = 0; i < length; i++, index++) {
+                int b = byteAt(index / 2) & 0xFF;
+                chunk[i] = (byte) ('0' + ((index & 1) == 0 ? b >>> 4 : b & 0x0F));
+            }
+            sink.write(chunk, 0, length);
+        }
+        sink.end();
+        return true;
+    }
+
+    /**
+     * Salva un valore nel formato "3.1415..." se contiene più cifre di quelle archiviate
+     */
+    public void store(String value) throws IOException {
+        openWriter().writeValue(value);
+    }
+
+    /**
+     * Destinazione che salva le cifre ricevute nell'archivio
+     * Le cifre vengono scritte in un file temporaneo che sostituisce l'archivio in modo atomico
+     * alla fine, solo se contiene più cifre di quelle già archiviate
+     */
+    public DigitSink openWriter() {
+        return new PackedWriter();
+    }
+
+    private synchronized void replace(Path temp, long digits) throws IOException {
+        refresh();
+        if (digits > cachedDigits) {
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            mappedModified = Long.MIN_VALUE;
+            refresh();
+        }
+    }
+
+    /**
+     * Scrittura in formato decimale impaccato su file temporaneo
+     */
+    private final class PackedWriter implements DigitSink {
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+        private Path temp;
+        private FileChannel channel;
+        private long expectedDigits;
+        private long writtenDigits;
+        private int pendingHigh = -1;
+
+        @Override
+        public void begin(String integerPart, long digits) throws IOException {
+            expectedDigits = digits;
+            writtenDigits = 0;
+            pendingHigh = -1;
+            if (digits <= cachedDigits()) {
+                return;
+            }
+
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+            channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+
+            buffer.clear();
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(Long.parseLong(integerPart)).putLong(digits);
+        }
+
+        @Override
+        public void write(byte[] digits, int offset, int length) throws IOException {
+            if (channel == null) {
+                return;
+            }
+            for (int i = offset; i < offset + length; i++) {
+                int digit = digits[i] - '0';
+                if (pendingHigh < 0) {
+                    pendingHigh = digit;
+                } else {
+                    put((byte) ((pendingHigh << 4) | digit));
+                    pendingHigh = -1;
+                }
+            }
+            writtenDigits += length;
+        }
+
+        @Override
+        public void end() throws IOException {
+            if (channel == null) {
+                return;
+            }
+            try {
+                if (pendingHigh >= 0) {
+                    put((byte) (pendingHigh << 4));
+                }
+                buffer.flip();
+                writeFully(channel, buffer);
+                channel.force(true);
+                channel.close();
+                if (writtenDigits != expectedDigits) {
+                    throw new IOException("Cifre scritte nell'archivio: " + writtenDigits + ", attese: " + expectedDigits);
+                }
+                replace(temp, writtenDigits);
+            } finally {
+                channel.close();
+                channel = null;
+                Files.deleteIfExists(temp);
+            }
+        }
+
+        private void put(byte b) throws IOException {
+            if (!buffer.hasRemaining()) {
+                buffer.flip();
+                writeFully(channel, buffer);
+                buffer.clear();
+            }
+            buffer.put(b);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private byte byteAt(long index) {
+        long offset = HEADER_SIZE + index;
+        return segments[(int) (offset / SEGMENT_SIZE)].get((int) (offset % SEGMENT_SIZE));
+    }
+
+    /**
+     * Mappa di nuovo il file se è stato sostituito, anche da un altro processo
+     */
+    private void refresh() {
+        try {
+            if (!Files.isRegularFile(file)) {
+                segments = null;
+                cachedDigits = 0;
+                return;
+            }
+            long modified = Files.getLastModifiedTime(file).toMillis() ^ Files.size(file);
+            if (modified == mappedModified) {
+                return;
+            }
+            mappedModified = modified;
+            segments = null;
+            cachedDigits = 0;
+
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = channel.size();
+                if (size < HEADER_SIZE) {
+                    return;
+                }
+                int count = (int) ((size + SEGMENT_SIZE - 1) / SEGMENT_SIZE);
+                MappedByteBuffer[] mapped = new MappedByteBuffer[count];
+                for (int i = 0; i < count; i++) {
+                    long start = i * SEGMENT_SIZE;
+                    mapped[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, size - start));
+                }
+
+                // Un file non riconosciuto viene trattato come archivio vuoto
+                ByteBuffer header = mapped[0];
+                long digits = header.getLong(16);
+                if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION
+                        || digits < 0 || HEADER_SIZE + (digits + 1) / 2 > size) {
+                    return;
+                }
+                integerPart = header.getLong(8);
+                cachedDigits = digits;
+                segments = mapped;
+            }
+        } catch (IOException e) {
+            segments = null;
+            cachedDigits = 0;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+import java.io.IOException;
+
+/**
+ * Destinazione delle cifre prodotte dal calcolo
+ * Le cifre decimali arrivano a blocchi, in ordine, come caratteri ASCII '0'-'9':
+ * nessuna implementazione deve richiedere il risultato completo in memoria
+ */
+public interface DigitSink {
+    
+    // Dimensione dei blocchi usata per scrivere un valore già formattato
+    int CHUNK_SIZE = 1 << 16;
+    
+    /**
+     * Inizio del risultato: parte intera e numero di cifre decimali che seguiranno
+     */
+    void begin(String integerPart, long digits) throws IOException;
+    
+    /**
+     * Blocco successivo di cifre decimali
+     */
+    void write(byte[] digits, int offset, int length) throws IOException;
+    
+    /**
+     * Fine del risultato
+     */
+    void end() throws IOException;
+    
+    /**
+     * Destinazione che inoltra le cifre a tutte le destinazioni indicate, nell'ordine
+     */
+    static DigitSink tee(DigitSink... sinks) {
+        return new DigitSink() {
+            @Override
+            public void begin(String integerPart, long digits) throws IOException {
+                for (DigitSink sink : sinks) {
+                    sink.begin(integerPart, digits);
+                }
+            }
+            
+            @Override
+            public void write(byte[] digits, int offset, int length) throws IOException {
+                for (DigitSink sink : sinks) {
+                    sink.write(digits, offset, length);
+                }
+            }
+            
+            @Override
+            public void end() throws IOException {
+                for (DigitSink sink : sinks) {
+                    sink.end();
+                }
+            }
+        };
+    }
+    
+    /**
+     * Scrive un valore già formattato, nel formato "3.1415..."
+     */
+    default void writeValue(String value) throws IOException {
+        int point = value.indexOf('.');
+        if (point < 1) {
+            throw new IllegalArgumentException("Valore non valido: " + value);
+        }
+        begin(value.substring(0, point), value.length() - point - 1);
+        byte[] chunk = new byte[CHUNK_SIZE];
+        for (int pos = point + 1; pos < value.length(); pos += CHUNK_SIZE) {
+            int length = Math.min(CHUNK_SIZE, value.length() - pos);
+            for (int i = 0; i < length; i++) {
+                chunk[i] = (byte) value.charAt(pos + i);
+            }
+            write(chunk, 0, length);
+        }
+        end();
+    }
+}
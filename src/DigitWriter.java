@@ -0,0 +1,133 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Scrittura in streaming delle cifre su file o OutputStream tramite canali NIO
+ * Le cifre passano da un buffer diretto di dimensione fissa: la memoria usata non dipende
+ * dal numero di cifre. Formato opzionale con un numero fisso di cifre per riga e
+ * raggruppamento delle cifre separato da spazi
+ */
+public class DigitWriter implements DigitSink, Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final WritableByteChannel channel;
+    private final int digitsPerLine;
+    private final int groupSize;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private long lineDigits;
+    private long groupDigits;
+    private long writtenDigits;
+
+    /**
+     * @param digitsPerLine cifre decimali per riga, 0 per scrivere tutte le cifre su una riga
+     * @param groupSize cifre per gruppo separate da uno spazio, 0 per nessun raggruppamento
+     */
+    public DigitWriter(WritableByteChannel channel, int digitsPerLine, int groupSize) {
+        if (digitsPerLine < 0 || groupSize < 0) {
+            throw new IllegalArgumentException("Formato non valido: " + digitsPerLine + " cifre per riga, gruppi da " + groupSize);
+        }
+        this.channel = channel;
+        this.digitsPerLine = digitsPerLine;
+        this.groupSize = groupSize;
+    }
+
+    public DigitWriter(OutputStream output, int digitsPerLine, int groupSize) {
+        this(Channels.newChannel(output), digitsPerLine, groupSize);
+    }
+
+    /**
+     * Apre il file indicato, sostituendone il contenuto
+     */
+    public static DigitWriter open(Path file, int digitsPerLine, int groupSize) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        return new DigitWriter(channel, digitsPerLine, groupSize);
+    }
+
+    @Override
+    public void begin(String integerPart, long digits) throws IOException {
+        lineDigits = 0;
+        groupDigits = 0;
+        writtenDigits = 0;
+        for (int i = 0; i < integerPart.length(); i++) {
+            put((byte) integerPart.charAt(i));
+        }
+        put((byte) '.');
+        if (digitsPerLine > 0) {
+            put((byte) '\n');
+        }
+    }
+
+    @Override
+    public void write(byte[] digits, int offset, int length) throws IOException {
+        int end = offset + length;
+        while (offset < end) {
+            // Separatori prima del prossimo blocco di cifre
+            if (writtenDigits > 0) {
+                if (digitsPerLine > 0 && lineDigits == digitsPerLine) {
+                    put((byte) '\n');
+                    lineDigits = 0;
+                    groupDigits = 0;
+                } else if (groupSize > 0 && groupDigits == groupSize) {
+                    put((byte) ' ');
+                    groupDigits = 0;
+                }
+            }
+
+            // Cifre fino al prossimo separatore, copiate in blocco
+            long run = end - offset;
+            if (digitsPerLine > 0) {
+                run = Math.min(run, digitsPerLine - lineDigits);
+            }
+            if (groupSize > 0) {
+                run = Math.min(run, groupSize - groupDigits);
+            }
+            int count = (int) Math.min(run, BUFFER_SIZE);
+            if (buffer.remaining() < count) {
+                flush();
+            }
+            buffer.put(digits, offset, count);
+            offset += count;
+            lineDigits += count;
+            groupDigits += count;
+            writtenDigits += count;
+        }
+    }
+
+    @Override
+    public void end() throws IOException {
+        if (digitsPerLine > 0) {
+            put((byte) '\n');
+        }
+        flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+
+    private void put(byte b) throws IOException {
+        if (!buffer.hasRemaining()) {
+            flush();
+        }
+        buffer.put(b);
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,408 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Intero con segno di dimensione arbitraria conservato in un file temporaneo
+ * Il modulo è salvato in little endian e viene elaborato a blocchi di blockBytes byte:
+ * in memoria restano solo pochi blocchi alla volta, quindi la dimensione degli operandi
+ * è limitata dal disco e non dall'heap. Il valore è immutabile; le operazioni creano
+ * nuovi file nella stessa cartella e il file viene eliminato alla chiusura
+ */
+public final class DiskBigInteger implements Closeable {
+
+    private final Path directory;
+    private final int blockBytes;
+    private final Path file;
+    private final FileChannel channel;
+    private final int signum;
+
+    // Byte del modulo, senza zeri più significativi
+    private final long length;
+
+    private DiskBigInteger(Path directory, int blockBytes, Path file, FileChannel channel, int signum, long length) {
+        this.directory = directory;
+        this.blockBytes = blockBytes;
+        this.file = file;
+        this.channel = channel;
+        this.signum = length == 0 ? 0 : signum;
+        this.length = length;
+    }
+
+    /**
+     * Copia su disco un intero in memoria
+     */
+    public static DiskBigInteger of(BigInteger value, Path directory, int blockBytes) throws IOException {
+        Builder builder = new Builder(directory, blockBytes);
+        try {
+            byte[] bigEndian = value.abs().toByteArray();
+            for (int offset = 0; offset < bigEndian.length; offset += blockBytes) {
+                builder.put(offset, bigEndian, bigEndian.length - offset, Math.min(blockBytes, bigEndian.length - offset));
+            }
+            return builder.finish(value.signum());
+        } catch (IOException | RuntimeException e) {
+            builder.abort();
+            throw e;
+        }
+    }
+
+    /**
+     * 2^(8 * bytes): un solo byte scritto, il resto del file è implicitamente nullo
+     */
+    public static DiskBigInteger powerOfTwo(long bytes, Path directory, int blockBytes) throws IOException {
+        Builder builder = new Builder(directory, blockBytes);
+        try {
+            builder.put(bytes, BigInteger.ONE, 1);
+            return builder.finish(1);
+        } catch (IOException | RuntimeException e) {
+            builder.abort();
+            throw e;
+        }
+    }
+
+    public int signum() {
+        return signum;
+    }
+
+    /**
+     * Numero di byte del modulo
+     */
+    public long byteLength() {
+        return length;
+    }
+
+    /**
+     * Valore in memoria; lancia ArithmeticException se non è rappresentabile come BigInteger
+     */
+    public BigInteger toBigInteger() throws IOException {
+        if (length > Integer.MAX_VALUE / 8) {
+            throw new ArithmeticException("Valore troppo grande per la memoria: " + length + " byte");
+        }
+        BigInteger magnitude = block(0, (int) length);
+        return signum < 0 ? magnitude.negate() : magnitude;
+    }
+
+    /**
+     * Residuo del valore modulo m, calcolato a blocchi dal più significativo
+     */
+    public BigInteger mod(BigInteger m) throws IOException {
+        BigInteger radix = BigInteger.ONE.shiftLeft(8 * blockBytes).mod(m);
+        BigInteger residue = BigInteger.ZERO;
+        for (long block = blocks(length) - 1; block >= 0; block--) {
+            residue = residue.multiply(radix).add(block(block * blockBytes, blockBytes)).mod(m);
+        }
+        return signum < 0 ? residue.negate().mod(m) : residue;
+    }
+
+    public DiskBigInteger add(DiskBigInteger other) throws IOException {
+        return addSigned(other, other.signum);
+    }
+
+    public DiskBigInteger subtract(DiskBigInteger other) throws IOException {
+        return addSigned(other, -other.signum);
+    }
+
+    /**
+     * Prodotto per diagonali di blocchi: la diagonale s somma i prodotti a_i * b_(s-i) in memoria,
+     * scrive i blockBytes byte meno significativi e riporta il resto alla diagonale successiva.
+     * Il risultato viene scritto una sola volta, in ordine; il quadrato sfrutta la simmetria.
+     * Lancia CancellationException se il calcolo viene fermato
+     */
+    public DiskBigInteger multiply(DiskBigInteger other, CalculationListener callback) throws IOException {
+        if (signum == 0 || other.signum == 0) {
+            return zero();
+        }
+        long blocksA = blocks(length);
+        long blocksB = other.blocks(other.length);
+        boolean square = other == this;
+        Builder builder = new Builder(directory, blockBytes);
+        try {
+            BigInteger carry = BigInteger.ZERO;
+            for (long s = 0; s < blocksA + blocksB - 1; s++) {
+                if (callback.isStopped()) {
+                    throw new CancellationException();
+                }
+                BigInteger accumulator = carry;
+                long first = Math.max(0, s - blocksB + 1);
+                long last = Math.min(s, blocksA - 1);
+                for (long i = first; i <= last; i++) {
+                    long j = s - i;
+                    if (square && j < i) {
+                        break;
+                    }
+                    BigInteger product = NttMultiplier.multiply(block(i * blockBytes, blockBytes), other.block(j * blockBytes, blockBytes));
+                    accumulator = accumulator.add(square && i != j ? product.shiftLeft(1) : product);
+                }
+                builder.put(s * blockBytes, accumulator, blockBytes);
+                carry = accumulator.shiftRight(8 * blockBytes);
+            }
+            long offset = (blocksA + blocksB - 1) * blockBytes;
+            builder.put(offset, carry, (carry.bitLength() + 7) / 8);
+            DiskBigInteger product = builder.finish(signum * other.signum);
+            ModularChecksum.verifyProduct(this, other, product);
+            return product;
+        } catch (IOException | RuntimeException e) {
+            builder.abort();
+            throw e;
+        }
+    }
+
+    /**
+     * Prodotto per un intero piccolo, in una sola passata
+     */
+    public DiskBigInteger multiply(long factor) throws IOException {
+        if (signum == 0 || factor == 0) {
+            return zero();
+        }
+        BigInteger multiplier = BigInteger.valueOf(Math.abs(factor));
+        Builder builder = new Builder(directory, blockBytes);
+        try {
+            BigInteger carry = BigInteger.ZERO;
+            long blockCount = blocks(length);
+            for (long block = 0; block < blockCount; block++) {
+                BigInteger value = block(block * blockBytes, blockBytes).multiply(multiplier).add(carry);
+                builder.put(block * blockBytes, value, blockBytes);
+                carry = value.shiftRight(8 * blockBytes);
+            }
+            builder.put(blockCount * blockBytes, carry, (carry.bitLength() + 7) / 8);
+            return builder.finish(factor < 0 ? -signum : signum);
+        } catch (IOException | RuntimeException e) {
+            builder.abort();
+            throw e;
+        }
+    }
+
+    /**
+     * Moltiplica per 2^(8 * bytes)
+     */
+    public DiskBigInteger shiftLeft(long bytes) throws IOException {
+        return copy(0, length, bytes, signum);
+    }
+
+    /**
+     * Divide per 2^(8 * bytes), troncando verso zero
+     */
+    public DiskBigInteger shiftRight(long bytes) throws IOException {
+        return copy(bytes, length, 0, signum);
+    }
+
+    /**
+     * Byte [from, to) del modulo come nuovo intero non negativo
+     */
+    public DiskBigInteger slice(long from, long to) throws IOException {
+        return copy(from, Math.min(to, length), 0, 1);
+    }
+
+    /**
+     * Elimina il file
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+        Files.deleteIfExists(file);
+    }
+
+    private DiskBigInteger zero() throws IOException {
+        return new Builder(directory, blockBytes).finish(0);
+    }
+
+    private DiskBigInteger addSigned(DiskBigInteger other, int otherSignum) throws IOException {
+        if (otherSignum == 0) {
+            return copy(0, length, 0, signum);
+        }
+        if (signum == 0) {
+            return other.copy(0, other.length, 0, otherSignum);
+        }
+        if (signum == otherSignum) {
+            return addMagnitudes(this, other, signum);
+        }
+        int comparison = compareMagnitude(other);
+        if (comparison == 0) {
+            return zero();
+        }
+        return comparison > 0 ? subtractMagnitudes(this, other, signum) : subtractMagnitudes(other, this, otherSignum);
+    }
+
+    private DiskBigInteger addMagnitudes(DiskBigInteger a, DiskBigInteger b, int resultSignum) throws IOException {
+        Builder builder = new Builder(directory, blockBytes);
+        try {
+            BigInteger carry = BigInteger.ZERO;
+            long blockCount = Math.max(blocks(a.length), blocks(b.length));
+            for (long block = 0; block < blockCount; block++) {
+                long offset = block * blockBytes;
+                BigInteger value = a.block(offset, blockBytes).add(b.block(offset, blockBytes)).add(carry);
+                builder.put(offset, value, blockBytes);
+                carry = value.shiftRight(8 * blockBytes);
+            }
+            builder.put(blockCount * blockBytes, carry, carry.signum());
+            return builder.finish(resultSignum);
+        } catch (IOException | RuntimeException e) {
+            builder.abort();
+            throw e;
+        }
+    }
+
+    /**
+     * |a| - |b| con |a| > |b|
+     */
+    private DiskBigInteger subtractMagnitudes(DiskBigInteger a, DiskBigInteger b, int resultSignum) throws IOException {
+        BigInteger radix = BigInteger.ONE.shiftLeft(8 * blockBytes);
+        Builder builder = new Builder(directory, blockBytes);
+        try {
+            BigInteger borrow = BigInteger.ZERO;
+            long blockCount = blocks(a.length);
+            for (long block = 0; block < blockCount; block++) {
+                long offset = block * blockBytes;
+                BigInteger value = a.block(offset, blockBytes).subtract(b.block(offset, blockBytes)).subtract(borrow);
+                if (value.signum() < 0) {
+                    value = value.add(radix);
+                    borrow = BigInteger.ONE;
+                } else {
+                    borrow = BigInteger.ZERO;
+                }
+                builder.put(offset, value, blockBytes);
+            }
+            return builder.finish(resultSignum);
+        } catch (IOException | RuntimeException e) {
+            builder.abort();
+            throw e;
+        }
+    }
+
+    private int compareMagnitude(DiskBigInteger other) throws IOException {
+        if (length != other.length) {
+            return length < other.length ? -1 : 1;
+        }
+        for (long block = blocks(length) - 1; block >= 0; block--) {
+            int comparison = block(block * blockBytes, blockBytes).compareTo(other.block(block * blockBytes, blockBytes));
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Copia i byte [from, to) del modulo a partire dalla posizione target
+     */
+    private DiskBigInteger copy(long from, long to, long target, int resultSignum) throws IOException {
+        Builder builder = new Builder(directory, blockBytes);
+        try {
+            for (long offset = from; offset < to; offset += blockBytes) {
+                int count = (int) Math.min(blockBytes, to - offset);
+                builder.put(target + offset - from, block(offset, count), count);
+            }
+            return builder.finish(resultSignum);
+        } catch (IOException | RuntimeException e) {
+            builder.abort();
+            throw e;
+        }
+    }
+
+    private long blocks(long bytes) {
+        return (bytes + blockBytes - 1) / blockBytes;
+    }
+
+    /**
+     * Byte [offset, offset + count) del modulo come intero non negativo; oltre la lunghezza valgono zero
+     */
+    private BigInteger block(long offset, int count) throws IOException {
+        int available = (int) Math.max(0, Math.min(count, length - offset));
+        if (available == 0) {
+            return BigInteger.ZERO;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(available);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("Fine inattesa del file: " + file);
+            }
+        }
+        byte[] littleEndian = buffer.array();
+        byte[] bigEndian = new byte[available];
+        for (int i = 0; i < available; i++) {
+            bigEndian[i] = littleEndian[available - 1 - i];
+        }
+        return new BigInteger(1, bigEndian);
+    }
+
+    /**
+     * Scrittura di un nuovo valore in un file temporaneo
+     */
+    private static final class Builder {
+        private final Path directory;
+        private final int blockBytes;
+        private final Path file;
+        private final FileChannel channel;
+        private long end;
+
+        Builder(Path directory, int blockBytes) throws IOException {
+            this.directory = directory;
+            this.blockBytes = blockBytes;
+            Files.createDirectories(directory);
+            file = Files.createTempFile(directory, "pi", ".big");
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+
+        /**
+         * Scrive i count byte meno significativi di un valore non negativo alla posizione offset
+         */
+        void put(long offset, BigInteger value, int count) throws IOException {
+            byte[] bigEndian = value.toByteArray();
+            put(offset, bigEndian, bigEndian.length, count);
+        }
+
+        /**
+         * Scrive alla posizione offset i count byte di bigEndian che precedono l'indice limit,
+         * dal meno significativo; i byte prima dell'inizio dell'array valgono zero
+         */
+        void put(long offset, byte[] bigEndian, int limit, int count) throws IOException {
+            if (count == 0) {
+                return;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(count);
+            for (int i = 0; i < count; i++) {
+                buffer.put(limit - 1 - i >= 0 ? bigEndian[limit - 1 - i] : 0);
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, offset + buffer.position());
+            }
+            end = Math.max(end, offset + count);
+        }
+
+        /**
+         * Chiude la scrittura ignorando gli zeri più significativi
+         */
+        DiskBigInteger finish(int signum) throws IOException {
+            long length = end;
+            while (length > 0) {
+                int count = (int) Math.min(blockBytes, length);
+                ByteBuffer buffer = ByteBuffer.allocate(count);
+                while (buffer.hasRemaining()) {
+                    channel.read(buffer, length - count + buffer.position());
+                }
+                int top = count - 1;
+                while (top >= 0 && buffer.get(top) == 0) {
+                    top--;
+                }
+                if (top >= 0) {
+                    length = length - count + top + 1;
+                    break;
+                }
+                length -= count;
+            }
+            return new DiskBigInteger(directory, blockBytes, file, channel, signum, length);
+        }
+
+        void abort() throws IOException {
+            channel.close();
+            Files.deleteIfExists(file);
+        }
+    }
+}
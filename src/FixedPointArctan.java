@@ -0,0 +1,179 @@
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Serie di Taylor di arctan(1/x) in virgola fissa decimale
+ * arctan(1/x) = 1/x - 1/(3x^3) + 1/(5x^5) - ...
+ * I valori sono array di limb in base 10^9, allocati una sola volta e riusati per ogni termine
+ * e per ogni arcotangente: le divisioni per x^2 e per 2k+1 sono divisioni per un solo limb
+ * eseguite sul posto in un'unica passata, senza creare oggetti nel ciclo.
+ * Conveniente per precisioni modeste, dove il binary splitting non ammortizza
+ * le moltiplicazioni tra interi grandi
+ */
+public class FixedPointArctan {
+
+    private static final int BASE = 1_000_000_000;
+    private static final int LIMB_DIGITS = 9;
+
+    // Limb di guardia per assorbire gli errori di troncamento delle divisioni
+    private static final int GUARD_LIMBS = 2;
+
+    // Oltre questo divisore rem * BASE + limb non è più rappresentabile in un long
+    private static final long MAX_DIVISOR = Long.MAX_VALUE / BASE - 1;
+
+    private final int digits;
+
+    // Indice 0: parte intera, indici successivi: gruppi di nove cifre decimali
+    private final int[] power;
+
+    // Somma con riporti non propagati: ogni limb può uscire temporaneamente da [0, BASE)
+    private final long[] sum;
+
+    public FixedPointArctan(int digits) {
+        if (digits < 1) {
+            throw new IllegalArgumentException("Numero di cifre non valido: " + digits);
+        }
+        this.digits = digits;
+        int limbs = 1 + (digits + LIMB_DIGITS - 1) / LIMB_DIGITS + GUARD_LIMBS;
+        power = new int[limbs];
+        sum = new long[limbs];
+    }
+
+    public int getDigits() {
+        return digits;
+    }
+
+    /**
+     * Calcola arctan(1/x) * 10^digits troncato, con un errore di poche unità sull'ultima cifra
+     * Lancia CancellationException se il calcolo viene fermato
+     */
+    public BigInteger arctan(long x, CalculationListener callback, double progressStart, double progressEnd) {
+        if (x < 2) {
+            throw new IllegalArgumentException("Denominatore non supportato: " + x);
+        }
+        long xSquared = x <= MAX_DIVISOR / x ? x * x : 0;
+        double totalTerms = digits / (2 * Math.log10(x)) + 1;
+        int lastPercent = 0;
+
+        // power = 1/x, sum = 1/x
+        Arrays.fill(power, 0);
+        Arrays.fill(sum, 0);
+        power[0] = 1;
+        int start = divide(power, 0, x);
+        for (int i = start; i < power.length; i++) {
+            sum[i] = power[i];
+        }
+
+        for (long k = 1; start < power.length; k++) {
+            if (callback.isStopped()) {
+                throw new CancellationException();
+            }
+
+            if (xSquared == 0) {
+                start = divide(power, start, x);
+            }
+            start = accumulate(start, xSquared != 0 ? xSquared : x, 2 * k + 1, (k & 1) == 0);
+
+            // Aggiorna progresso solo quando cambia la percentuale
+            int percent = (int) Math.min(100, k * 100 / totalTerms);
+            if (percent > lastPercent) {
+                lastPercent = percent;
+                callback.onProgress(progressStart + (progressEnd - progressStart) * percent / 100.0);
+            }
+        }
+        normalize(sum);
+        return toScaledInteger(sum);
+    }
+
+    /**
+     * Un termine della serie in una sola passata sui limb: power = power / divisor e
+     * sum = sum ± power / denominator. I riporti di sum vengono propagati solo alla fine.
+     * Restituisce l'indice del primo limb non nullo di power
+     */
+    private int accumulate(int start, long divisor, long denominator, boolean positive) {
+        double inverseDivisor = 1.0 / divisor;
+        double inverseDenominator = 1.0 / denominator;
+        long powerRemainder = 0;
+        long termRemainder = 0;
+        int first = power.length;
+        for (int i = start; i < power.length; i++) {
+            long current = powerRemainder * BASE + power[i];
+            long quotient = quotient(current, divisor, inverseDivisor);
+            powerRemainder = current - quotient * divisor;
+            power[i] = (int) quotient;
+            if (quotient != 0 && first == power.length) {
+                first = i;
+            }
+
+            current = termRemainder * BASE + quotient;
+            long term = quotient(current, denominator, inverseDenominator);
+            termRemainder = current - term * denominator;
+            sum[i] += positive ? term : -term;
+        }
+        return first;
+    }
+
+    /**
+     * Divisione sul posto per un divisore di un solo limb, a partire dal limb start
+     * Restituisce l'indice del primo limb non nullo del quoziente (length se è zero)
+     */
+    private static int divide(int[] value, int start, long divisor) {
+        double inverse = 1.0 / divisor;
+        long remainder = 0;
+        int first = value.length;
+        for (int i = start; i < value.length; i++) {
+            long current = remainder * BASE + value[i];
+            long quotient = quotient(current, divisor, inverse);
+            remainder = current - quotient * divisor;
+            value[i] = (int) quotient;
+            if (quotient != 0 && first == value.length) {
+                first = i;
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Quoziente tramite il reciproco in doppia precisione, corretto di un'unità se necessario:
+     * evita la divisione intera a 64 bit, molto più lenta della moltiplicazione
+     */
+    private static long quotient(long dividend, long divisor, double inverse) {
+        long quotient = (long) (dividend * inverse);
+        long remainder = dividend - quotient * divisor;
+        if (remainder < 0) {
+            quotient--;
+        } else if (remainder >= divisor) {
+            quotient++;
+        }
+        return quotient;
+    }
+
+    /**
+     * Riporta ogni limb nell'intervallo [0, BASE)
+     */
+    private static void normalize(long[] value) {
+        long carry = 0;
+        for (int i = value.length - 1; i >= 0; i--) {
+            long current = value[i] + carry;
+            carry = Math.floorDiv(current, BASE);
+            value[i] = current - carry * BASE;
+        }
+    }
+
+    /**
+     * Parte intera seguita dalle prime digits cifre decimali, come intero
+     */
+    private BigInteger toScaledInteger(long[] value) {
+        char[] chars = new char[(value.length - 1) * LIMB_DIGITS];
+        for (int i = 1; i < value.length; i++) {
+            long limb = value[i];
+            for (int j = i * LIMB_DIGITS - 1; j >= (i - 1) * LIMB_DIGITS; j--) {
+                chars[j] = (char) ('0' + limb % 10);
+                limb /= 10;
+            }
+        }
+        BigInteger fraction = new BigInteger(new String(chars, 0, digits));
+        return BigInteger.valueOf(value[0]).multiply(BigInteger.TEN.pow(digits)).add(fraction);
+    }
+}
@@ -0,0 +1,316 @@
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Motore binary splitting per le serie ipergeometriche (HypergeometricSeries), tra cui Chudnovsky
+ * Calcola i prodotti P, Q, T sull'intervallo di termini [a, b) con aritmetica intera esatta:
+ * nessuna divisione intermedia, una sola divisione e una sola radice quadrata finali.
+ * Con un ForkJoinPool i sottoalberi e le moltiplicazioni di fusione vengono eseguiti in parallelo
+ */
+public class HypergeometricBinarySplitting {
+
+    // Cifre decimali aggiunte da ogni termine di Chudnovsky: log10(640320^3 / 1728)
+    private static final double DIGITS_PER_TERM = 14.181647462725477;
+
+    // Sotto questa ampiezza l'intervallo viene valutato in modo sequenziale
+    private static final long PARALLEL_TERMS_THRESHOLD = 512;
+
+    // Sotto questa dimensione (in bit) le moltiplicazioni di fusione non vengono parallelizzate
+    private static final int PARALLEL_MERGE_BITS = 1 << 16;
+
+    // Termini per blocco nella valutazione con checkpoint
+    private static final long CHECKPOINT_TERMS = 1 << 16;
+
+    // Intervallo minimo tra due salvataggi del checkpoint
+    private static final long CHECKPOINT_INTERVAL_NANOS = 60_000_000_000L;
+
+    private final HypergeometricSeries series;
+    private final CalculationListener callback;
+    private final double progressStart;
+    private final double progressEnd;
+    private final ForkJoinPool pool;
+    private long totalTerms;
+    private final AtomicLong completedTerms = new AtomicLong();
+    private final AtomicInteger lastReportedPercent = new AtomicInteger();
+
+    public HypergeometricBinarySplitting(HypergeometricSeries series, CalculationListener callback,
+                                         double progressStart, double progressEnd) {
+        this(series, callback, progressStart, progressEnd, null);
+    }
+
+    /**
+     * @param pool pool per la valutazione parallela, null per la valutazione sequenziale
+     */
+    public HypergeometricBinarySplitting(HypergeometricSeries series, CalculationListener callback,
+                                         double progressStart, double progressEnd, ForkJoinPool pool) {
+        this.series = series;
+        this.callback = callback;
+        this.progressStart = progressStart;
+        this.progressEnd = progressEnd;
+        this.pool = pool;
+    }
+
+    /**
+     * Risultato del binary splitting su un intervallo di termini
+     */
+    public static final class Result {
+        final BigInteger p;
+        final BigInteger q;
+        final BigInteger t;
+
+        Result(BigInteger p, BigInteger q, BigInteger t) {
+            this.p = p;
+            this.q = q;
+            this.t = t;
+        }
+    }
+
+    /**
+     * Numero di termini di Chudnovsky necessari per ottenere le cifre decimali richieste
+     * (per le altre serie: HypergeometricSeries.termsFor)
+     */
+    public static long termsFor(int digits) {
+        return (long) (digits / DIGITS_PER_TERM) + 2;
+    }
+
+    /**
+     * Valuta la serie sui termini [0, terms)
+     * Lancia CancellationException se il calcolo viene fermato
+     */
+    public Result compute(long terms) {
+        totalTerms = terms;
+        completedTerms.set(0);
+        lastReportedPercent.set(0);
+        if (pool == null || pool.getParallelism() <= 1) {
+            return split(0, terms);
+        }
+        return pool.invoke(new SplitTask(0, terms));
+    }
+
+    /**
+     * Estende a [0, terms) il risultato prefix della serie su [0, prefixTerms), con prefixTerms <= terms:
+     * valuta solo i termini [prefixTerms, terms) e li unisce a prefix
+     * Lancia CancellationException se il calcolo viene fermato
+     */
+    public Result extend(Result prefix, long prefixTerms, long terms) {
+        if (prefixTerms > terms) {
+            throw new IllegalArgumentException("Intervallo già calcolato oltre i termini richiesti: " + prefixTerms + " > " + terms);
+        }
+        if (prefixTerms == terms) {
+            return prefix;
+        }
+        totalTerms = terms - prefixTerms;
+        completedTerms.set(0);
+        lastReportedPercent.set(0);
+        return merge(prefix, evaluate(prefixTerms, terms));
+    }
+
+    /**
+     * Valuta la serie sui termini [0, terms) a blocchi di CHECKPOINT_TERMS termini, salvando
+     * periodicamente i prodotti parziali nel checkpoint, e comunque quando il calcolo viene fermato.
+     * Con resume riprende dagli intervalli già salvati; il checkpoint viene eliminato alla fine.
+     * Lancia CancellationException se il calcolo viene fermato
+     */
+    public Result compute(long terms, Checkpoint checkpoint, boolean resume) {
+        totalTerms = terms;
+        lastReportedPercent.set(0);
+
+        // Gli intervalli salvati sono riusabili se non superano i termini richiesti
+        List<Checkpoint.Segment> stack = new ArrayList<>();
+        if (resume) {
+            List<Checkpoint.Segment> saved = checkpoint.load(series.getName());
+            if (!saved.isEmpty() && saved.get(saved.size() - 1).end <= terms) {
+                stack.addAll(saved);
+            }
+        }
+        long next = stack.isEmpty() ? 0 : stack.get(stack.size() - 1).end;
+        completedTerms.set(next);
+
+        long lastSave = System.nanoTime();
+        try {
+            while (next < terms) {
+                long end = Math.min(terms, next + CHECKPOINT_TERMS);
+                Result block = evaluate(next, end);
+                push(stack, new Checkpoint.Segment(next, end, block));
+                next = end;
+
+                if (next < terms && System.nanoTime() - lastSave >= CHECKPOINT_INTERVAL_NANOS) {
+                    save(checkpoint, stack);
+                    lastSave = System.nanoTime();
+                }
+            }
+        } catch (CancellationException e) {
+            save(checkpoint, stack);
+            throw e;
+        }
+
+        // Unione finale da destra: gli intervalli più recenti sono i più piccoli
+        Result result = stack.get(stack.size() - 1).result;
+        for (int i = stack.size() - 2; i >= 0; i--) {
+            result = merge(stack.get(i).result, result);
+        }
+        try {
+            checkpoint.delete();
+        } catch (IOException e) {
+            // Un checkpoint rimasto su disco verrà solo riusato o sovrascritto
+        }
+        return result;
+    }
+
+    /**
+     * Valuta il blocco [a, b) di una serie di terms termini valutata a blocchi consecutivi
+     * Lancia CancellationException se il calcolo viene fermato
+     */
+    Result computeBlock(long a, long b, long terms) {
+        if (a == 0) {
+            completedTerms.set(0);
+            lastReportedPercent.set(0);
+        }
+        totalTerms = terms;
+        return evaluate(a, b);
+    }
+
+    private Result evaluate(long a, long b) {
+        if (pool == null || pool.getParallelism() <= 1) {
+            return split(a, b);
+        }
+        return pool.invoke(new SplitTask(a, b));
+    }
+
+    /**
+     * Aggiunge un blocco unendo gli intervalli di pari ampiezza, come in un contatore binario:
+     * le moltiplicazioni restano bilanciate come nel binary splitting su tutto l'intervallo
+     */
+    private void push(List<Checkpoint.Segment> stack, Checkpoint.Segment segment) {
+        while (!stack.isEmpty()) {
+            Checkpoint.Segment top = stack.get(stack.size() - 1);
+            if (top.end - top.start != segment.end - segment.start) {
+                break;
+            }
+            stack.remove(stack.size() - 1);
+            segment = new Checkpoint.Segment(top.start, segment.end, merge(top.result, segment.result));
+        }
+        stack.add(segment);
+    }
+
+    private Result merge(Result left, Result right) {
+        if (pool == null || pool.getParallelism() <= 1) {
+            return combine(left, right);
+        }
+        return pool.invoke(ForkJoinTask.adapt(() -> combineParallel(left, right)));
+    }
+
+    /**
+     * Un errore di scrittura del checkpoint non interrompe il calcolo
+     */
+    private void save(Checkpoint checkpoint, List<Checkpoint.Segment> stack) {
+        if (stack.isEmpty()) {
+            return;
+        }
+        try {
+            checkpoint.save(series.getName(), stack);
+        } catch (IOException e) {
+            // Il checkpoint precedente resta valido
+        }
+    }
+
+    private Result split(long a, long b) {
+        if (b - a == 1) {
+            return leaf(a);
+        }
+        if (callback.isStopped()) {
+            throw new CancellationException();
+        }
+
+        long m = (a + b) / 2;
+        Result left = split(a, m);
+        Result right = split(m, b);
+        return combine(left, right);
+    }
+
+    /**
+     * Termine singolo: P(0) = Q(0) = 1, T(0) = a(0); P(k) = p(k), Q(k) = q(k), T(k) = p(k) * a(k)
+     */
+    private Result leaf(long k) {
+        Result result;
+        if (k == 0) {
+            result = new Result(BigInteger.ONE, BigInteger.ONE, series.a(0));
+        } else {
+            BigInteger p = series.p(k);
+            result = new Result(p, series.q(k), p.multiply(series.a(k)));
+        }
+
+        // Aggiorna progresso solo quando cambia la percentuale
+        int percent = (int) (completedTerms.incrementAndGet() * 100 / totalTerms);
+        int last = lastReportedPercent.get();
+        if (percent > last && lastReportedPercent.compareAndSet(last, percent)) {
+            callback.onProgress(progressStart + (progressEnd - progressStart) * percent / 100.0);
+        }
+        return result;
+    }
+
+    /**
+     * Unisce due intervalli adiacenti [a, m) e [m, b):
+     * P = P1*P2, Q = Q1*Q2, T = T1*Q2 + P1*T2
+     */
+    static Result combine(Result left, Result right) {
+        BigInteger p = NttMultiplier.multiply(left.p, right.p);
+        BigInteger q = NttMultiplier.multiply(left.q, right.q);
+        BigInteger t = NttMultiplier.multiply(left.t, right.q).add(NttMultiplier.multiply(left.p, right.t));
+        return new Result(p, q, t);
+    }
+
+    /**
+     * Unione parallela: le quattro moltiplicazioni sono indipendenti tra loro
+     */
+    static Result combineParallel(Result left, Result right) {
+        if (left.q.bitLength() < PARALLEL_MERGE_BITS) {
+            return combine(left, right);
+        }
+        ForkJoinTask<BigInteger> p = ForkJoinTask.adapt(() -> NttMultiplier.multiply(left.p, right.p)).fork();
+        ForkJoinTask<BigInteger> q = ForkJoinTask.adapt(() -> NttMultiplier.multiply(left.q, right.q)).fork();
+        ForkJoinTask<BigInteger> t1 = ForkJoinTask.adapt(() -> NttMultiplier.multiply(left.t, right.q)).fork();
+        BigInteger t2 = NttMultiplier.multiply(left.p, right.t);
+        BigInteger t = t1.join().add(t2);
+        return new Result(p.join(), q.join(), t);
+    }
+
+    /**
+     * Sottoalbero valutato come task fork/join
+     */
+    private final class SplitTask extends RecursiveTask<Result> {
+        private static final long serialVersionUID = 1L;
+
+        private final long a;
+        private final long b;
+
+        SplitTask(long a, long b) {
+            this.a = a;
+            this.b = b;
+        }
+
+        @Override
+        protected Result compute() {
+            if (b - a <= PARALLEL_TERMS_THRESHOLD) {
+                return split(a, b);
+            }
+            if (callback.isStopped()) {
+                throw new CancellationException();
+            }
+
+            long m = (a + b) / 2;
+            SplitTask right = new SplitTask(m, b);
+            right.fork();
+            Result left = new SplitTask(a, m).compute();
+            return combineParallel(left, right.join());
+        }
+    }
+}
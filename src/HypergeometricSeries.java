@@ -0,0 +1,175 @@
+import java.math.BigInteger;
+
+/**
+ * Costante definita da una serie ipergeometrica, valutata con HypergeometricBinarySplitting
+ * S = Σ(k=0 to ∞) a(k) * Π(j=1 to k) p(j) / q(j), con a, p, q polinomi a coefficienti interi;
+ * la costante vale factorNumerator / factorDenominator * √sqrtFactor * S, oppure lo stesso
+ * fattore diviso per S se reciprocal (come π con Chudnovsky).
+ * I coefficienti dei polinomi sono in ordine di grado crescente
+ */
+public final class HypergeometricSeries {
+
+    /**
+     * π = 426880 * √10005 / S, serie di Chudnovsky:
+     * p(k) = -(6k-5)(2k-1)(6k-1), q(k) = k^3 * 640320^3 / 24, a(k) = 13591409 + 545140134k
+     */
+    public static final HypergeometricSeries PI = new HypergeometricSeries("pi",
+            new long[] {5, -46, 108, -72}, new long[] {0, 0, 0, 10939058860032000L}, new long[] {13591409, 545140134},
+            426880, 1, 10005, true);
+
+    /**
+     * e = Σ 1 / k!
+     */
+    public static final HypergeometricSeries E = new HypergeometricSeries("e",
+            new long[] {1}, new long[] {0, 1}, new long[] {1});
+
+    /**
+     * ln 2 = 3/4 * Σ (-1)^k (k!)^2 / (2^k (2k+1)!): p(k) = -k, q(k) = 4(2k+1)
+     */
+    public static final HypergeometricSeries LN2 = new HypergeometricSeries("ln2",
+            new long[] {0, -1}, new long[] {4, 8}, new long[] {1}, 3, 4, 1, false);
+
+    /**
+     * √2 = 7/5 * (1 - 1/50)^(-1/2) = 7/5 * Σ C(2k, k) / 200^k: p(k) = 2k-1, q(k) = 100k
+     */
+    public static final HypergeometricSeries SQRT2 = new HypergeometricSeries("sqrt2",
+            new long[] {-1, 2}, new long[] {0, 100}, new long[] {1}, 7, 5, 1, false);
+
+    /**
+     * ζ(3) = 1/64 * Σ (-1)^k (205k^2 + 250k + 77) (k!)^10 / ((2k+1)!)^5 (Amdahl):
+     * p(k) = -k^5, q(k) = 32(2k+1)^5
+     */
+    public static final HypergeometricSeries ZETA3 = new HypergeometricSeries("zeta3",
+            new long[] {0, 0, 0, 0, 0, -1}, new long[] {32, 320, 1280, 2560, 2560, 1024}, new long[] {77, 250, 205},
+            1, 64, 1, false);
+
+    private static final HypergeometricSeries[] BUILT_IN = {PI, E, LN2, SQRT2, ZETA3};
+
+    // Cifre in più richieste all'ultimo termine valutato, a garanzia della stima dei termini
+    private static final int TERM_GUARD_DIGITS = 2;
+
+    private final String name;
+    private final BigInteger[] p;
+    private final BigInteger[] q;
+    private final BigInteger[] a;
+    private final long factorNumerator;
+    private final long factorDenominator;
+    private final long sqrtFactor;
+    private final boolean reciprocal;
+
+    /**
+     * Costante uguale alla somma della serie
+     */
+    public HypergeometricSeries(String name, long[] p, long[] q, long[] a) {
+        this(name, p, q, a, 1, 1, 1, false);
+    }
+
+    public HypergeometricSeries(String name, long[] p, long[] q, long[] a,
+                                long factorNumerator, long factorDenominator, long sqrtFactor, boolean reciprocal) {
+        if (p.length == 0 || q.length == 0 || a.length == 0) {
+            throw new IllegalArgumentException("Polinomio vuoto nella serie " + name);
+        }
+        if (factorNumerator < 1 || factorDenominator < 1 || sqrtFactor < 1 || sqrtFactor >= 1L << 52) {
+            throw new IllegalArgumentException("Fattore non valido nella serie " + name);
+        }
+        this.name = name;
+        this.p = toBigIntegers(p);
+        this.q = toBigIntegers(q);
+        this.a = toBigIntegers(a);
+        this.factorNumerator = factorNumerator;
+        this.factorDenominator = factorDenominator;
+        this.sqrtFactor = sqrtFactor;
+        this.reciprocal = reciprocal;
+    }
+
+    /**
+     * Costante predefinita dal nome: pi, e, ln2, sqrt2 o zeta3
+     */
+    public static HypergeometricSeries byName(String name) {
+        for (HypergeometricSeries series : BUILT_IN) {
+            if (series.name.equalsIgnoreCase(name)) {
+                return series;
+            }
+        }
+        throw new IllegalArgumentException("Costante non supportata: " + name);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getFactorNumerator() {
+        return factorNumerator;
+    }
+
+    public long getFactorDenominator() {
+        return factorDenominator;
+    }
+
+    public long getSqrtFactor() {
+        return sqrtFactor;
+    }
+
+    public boolean isReciprocal() {
+        return reciprocal;
+    }
+
+    BigInteger p(long k) {
+        return evaluate(p, k);
+    }
+
+    BigInteger q(long k) {
+        return evaluate(q, k);
+    }
+
+    BigInteger a(long k) {
+        return evaluate(a, k);
+    }
+
+    /**
+     * Numero di termini necessari per le cifre decimali richieste: i termini vengono stimati
+     * in doppia precisione finché il successivo scende sotto 10^-digits
+     */
+    public long termsFor(long digits) {
+        double limit = -(digits + TERM_GUARD_DIGITS) + log10(a, 0);
+        double product = 0;
+        long maxTerms = 16 * digits + 1024;
+        for (long k = 1; k <= maxTerms; k++) {
+            product += log10(p, k) - log10(q, k);
+            if (product + log10(a, k) < limit) {
+                return k + 1;
+            }
+        }
+        throw new IllegalArgumentException("La serie " + name + " converge troppo lentamente");
+    }
+
+    private static double log10(BigInteger[] coefficients, long k) {
+        double value = 0;
+        for (int i = coefficients.length - 1; i >= 0; i--) {
+            value = value * k + coefficients[i].doubleValue();
+        }
+        return Math.log10(Math.abs(value));
+    }
+
+    private static BigInteger evaluate(BigInteger[] coefficients, long k) {
+        BigInteger x = BigInteger.valueOf(k);
+        BigInteger value = coefficients[coefficients.length - 1];
+        for (int i = coefficients.length - 2; i >= 0; i--) {
+            value = value.multiply(x).add(coefficients[i]);
+        }
+        return value;
+    }
+
+    private static BigInteger[] toBigIntegers(long[] values) {
+        BigInteger[] result = new BigInteger[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = BigInteger.valueOf(values[i]);
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,79 @@
+/**
+ * Formula di tipo Machin: π/4 = Σ c_i * arctan(1/x_i)
+ * Più termini con denominatori grandi convergono più rapidamente e si valutano in parallelo
+ */
+public final class MachinFormula {
+
+    // Machin (1706): π/4 = 4 arctan(1/5) - arctan(1/239)
+    public static final MachinFormula MACHIN = new MachinFormula("Machin",
+        new long[] {4, -1}, new long[] {5, 239});
+
+    // Gauss: π/4 = 12 arctan(1/18) + 8 arctan(1/57) - 5 arctan(1/239)
+    public static final MachinFormula GAUSS = new MachinFormula("Gauss",
+        new long[] {12, 8, -5}, new long[] {18, 57, 239});
+
+    // Takano (1982): π/4 = 12 arctan(1/49) + 32 arctan(1/57) - 5 arctan(1/239) + 12 arctan(1/110443)
+    public static final MachinFormula TAKANO = new MachinFormula("Takano",
+        new long[] {12, 32, -5, 12}, new long[] {49, 57, 239, 110443});
+
+    // Størmer (1896): π/4 = 44 arctan(1/57) + 7 arctan(1/239) - 12 arctan(1/682) + 24 arctan(1/12943)
+    public static final MachinFormula STORMER = new MachinFormula("Størmer",
+        new long[] {44, 7, -12, 24}, new long[] {57, 239, 682, 12943});
+
+    private final String name;
+    private final long[] coefficients;
+    private final long[] denominators;
+
+    public MachinFormula(String name, long[] coefficients, long[] denominators) {
+        if (coefficients.length == 0 || coefficients.length != denominators.length) {
+            throw new IllegalArgumentException("Formula non valida: " + name);
+        }
+        for (long x : denominators) {
+            if (x < 2 || x > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Denominatore non valido: " + x);
+            }
+        }
+        this.name = name;
+        this.coefficients = coefficients.clone();
+        this.denominators = denominators.clone();
+    }
+
+    /**
+     * Formula predefinita con il nome indicato, senza distinzione tra maiuscole e minuscole
+     */
+    public static MachinFormula byName(String name) {
+        for (MachinFormula formula : new MachinFormula[] {MACHIN, GAUSS, TAKANO, STORMER}) {
+            if (formula.name.equalsIgnoreCase(name) || ("stormer".equalsIgnoreCase(name) && formula == STORMER)) {
+                return formula;
+            }
+        }
+        throw new IllegalArgumentException("Formula non supportata: " + name);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int size() {
+        return coefficients.length;
+    }
+
+    public long coefficient(int i) {
+        return coefficients[i];
+    }
+
+    public long denominator(int i) {
+        return denominators[i];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("π/4 =");
+        for (int i = 0; i < size(); i++) {
+            long c = coefficients[i];
+            text.append(i == 0 ? (c < 0 ? " -" : " ") : (c < 0 ? " - " : " + "));
+            text.append(Math.abs(c)).append(" arctan(1/").append(denominators[i]).append(')');
+        }
+        return name + ": " + text;
+    }
+}
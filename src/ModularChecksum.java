@@ -0,0 +1,58 @@
+import java.io.IOException;
+import java.math.BigInteger;
+
+/**
+ * Verifica modulare delle operazioni finali su interi di grandi dimensioni
+ * Un errore nel prodotto o nella divisione viene rilevato confrontando i residui
+ * modulo due primi, al costo di una riduzione lineare per operando
+ */
+public final class ModularChecksum {
+
+    // Primi di Mersenne 2^61 - 1 e 2^31 - 1
+    private static final BigInteger[] MODULI = {
+        BigInteger.ONE.shiftLeft(61).subtract(BigInteger.ONE),
+        BigInteger.ONE.shiftLeft(31).subtract(BigInteger.ONE)
+    };
+
+    private ModularChecksum() {
+    }
+
+    /**
+     * Verifica che product = a * b
+     */
+    public static void verifyProduct(BigInteger a, BigInteger b, BigInteger product) {
+        for (BigInteger m : MODULI) {
+            BigInteger expected = a.mod(m).multiply(b.mod(m)).mod(m);
+            if (!expected.equals(product.mod(m))) {
+                throw new ArithmeticException("Errore di calcolo: verifica modulare del prodotto fallita");
+            }
+        }
+    }
+
+    /**
+     * Verifica che product = a * b per operandi su disco, con i residui calcolati a blocchi
+     */
+    public static void verifyProduct(DiskBigInteger a, DiskBigInteger b, DiskBigInteger product) throws IOException {
+        for (BigInteger m : MODULI) {
+            BigInteger expected = a.mod(m).multiply(b.mod(m)).mod(m);
+            if (!expected.equals(product.mod(m))) {
+                throw new ArithmeticException("Errore di calcolo: verifica modulare del prodotto fallita");
+            }
+        }
+    }
+
+    /**
+     * Verifica che dividend = quotient * divisor + remainder con |remainder| < |divisor|
+     */
+    public static void verifyDivision(BigInteger dividend, BigInteger divisor, BigInteger quotient, BigInteger remainder) {
+        if (remainder.abs().compareTo(divisor.abs()) >= 0) {
+            throw new ArithmeticException("Errore di calcolo: resto della divisione fuori intervallo");
+        }
+        for (BigInteger m : MODULI) {
+            BigInteger expected = quotient.mod(m).multiply(divisor.mod(m)).add(remainder.mod(m)).mod(m);
+            if (!expected.equals(dividend.mod(m))) {
+                throw new ArithmeticException("Errore di calcolo: verifica modulare della divisione fallita");
+            }
+        }
+    }
+}
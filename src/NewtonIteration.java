@@ -0,0 +1,118 @@
+import java.math.BigInteger;
+
+/**
+ * Reciproco, inversa della radice quadrata e divisione con il metodo di Newton in virgola fissa binaria
+ * Ogni passo parte dal risultato a metà precisione e raddoppia i bit corretti, usando solo
+ * moltiplicazioni: il costo complessivo è quello di poche moltiplicazioni alla precisione finale.
+ * Il primo valore è una stima in doppia precisione
+ */
+public final class NewtonIteration {
+
+    // Bit ottenuti direttamente dalla stima in doppia precisione
+    private static final int SEED_BITS = 40;
+
+    // Bit in più del quoziente cercato, per assorbire gli errori del reciproco
+    private static final int GUARD_BITS = 32;
+
+    // Bit della correzione di Newton mantenuti sotto l'ultimo bit del risultato
+    private static final int CORRECTION_GUARD_BITS = 8;
+
+    // Sotto questa dimensione del quoziente (in bit) la divisione di Burnikel-Ziegler
+    // di BigInteger è più veloce (SqrtBenchmark)
+    static final int DIVISION_THRESHOLD_BITS = 1 << 22;
+
+    private NewtonIteration() {
+    }
+
+    /**
+     * 2^bits / √a, con un errore di poche unità sull'ultimo bit
+     * y' = y + y * (1 - a * y^2) / 2
+     */
+    public static BigInteger inverseSqrt(long a, int bits) {
+        if (a < 1 || a >= 1L << 52) {
+            throw new IllegalArgumentException("Radicando non supportato: " + a);
+        }
+        if (bits <= SEED_BITS) {
+            return BigInteger.valueOf((long) (Math.scalb(1.0, bits) / Math.sqrt(a)));
+        }
+
+        // y ha circa bits - log2(√a) bit significativi: la metà precisione ne tiene conto
+        int magnitude = (64 - Long.numberOfLeadingZeros(a) + 1) / 2;
+        int half = (bits + magnitude + 3) / 2 + 1;
+        BigInteger y = inverseSqrt(a, half);
+
+        // error = 2^(2 * half) - a * y^2, piccolo rispetto a 2^(2 * half)
+        BigInteger error = BigInteger.ONE.shiftLeft(2 * half).subtract(NttMultiplier.square(y).multiply(BigInteger.valueOf(a)));
+        return y.shiftLeft(bits - half).add(NttMultiplier.multiply(y, error).shiftRight(3 * half + 1 - bits));
+    }
+
+    /**
+     * 2^(bitLength(x) + bits) / x per x positivo, con un errore di poche unità sull'ultimo bit
+     * Equivale a 2^(2 * bits) / X, con X i primi bits bit di x
+     * r' = r + r * (1 - X * r)
+     */
+    public static BigInteger reciprocal(BigInteger x, int bits) {
+        if (x.signum() <= 0) {
+            throw new IllegalArgumentException("Il reciproco richiede un valore positivo");
+        }
+        if (bits <= SEED_BITS) {
+            return BigInteger.valueOf((long) (Math.scalb(1.0, 2 * bits) / leadingBits(x, bits).doubleValue()));
+        }
+        int half = bits / 2 + 2;
+        BigInteger r = reciprocal(x, half);
+
+        // error = 2^(bits + half) - X * r, dell'ordine di 2^bits: della correzione r * error / 2^(2 * half)
+        // servono solo i bit sopra l'ultimo del risultato, quindi error viene troncato prima del prodotto
+        BigInteger error = BigInteger.ONE.shiftLeft(bits + half).subtract(NttMultiplier.multiply(leadingBits(x, bits), r));
+        int drop = Math.max(0, half - CORRECTION_GUARD_BITS);
+        return r.shiftLeft(bits - half).add(NttMultiplier.multiply(r, error.shiftRight(drop)).shiftRight(2 * half - drop));
+    }
+
+    /**
+     * Quoziente e resto come BigInteger.divideAndRemainder, esatti
+     * Per quozienti grandi il valore viene dal reciproco del divisore, limitato ai bit
+     * necessari, e corretto con il resto; sotto DIVISION_THRESHOLD_BITS la divisione è quella di BigInteger
+     */
+    public static BigInteger[] divideAndRemainder(BigInteger n, BigInteger d) {
+        int quotientBits = n.bitLength() - d.bitLength() + 1;
+        if (quotientBits < DIVISION_THRESHOLD_BITS || d.signum() == 0) {
+            return n.divideAndRemainder(d);
+        }
+        BigInteger dividend = n.abs();
+        BigInteger divisor = d.abs();
+
+        // q = floor(n / d) a meno di poche unità: del dividendo bastano i bit che incidono sul quoziente
+        int precision = quotientBits + GUARD_BITS;
+        int divisorBits = divisor.bitLength();
+        int shift = Math.max(0, dividend.bitLength() - precision);
+        BigInteger r = reciprocal(divisor, precision);
+        BigInteger quotient = NttMultiplier.multiply(dividend.shiftRight(shift), r).shiftRight(divisorBits + precision - shift);
+
+        BigInteger remainder = dividend.subtract(NttMultiplier.multiply(quotient, divisor));
+        while (remainder.signum() < 0) {
+            quotient = quotient.subtract(BigInteger.ONE);
+            remainder = remainder.add(divisor);
+        }
+        while (remainder.compareTo(divisor) >= 0) {
+            quotient = quotient.add(BigInteger.ONE);
+            remainder = remainder.subtract(divisor);
+        }
+
+        // Troncamento verso zero, come BigInteger
+        if (n.signum() * d.signum() < 0) {
+            quotient = quotient.negate();
+        }
+        if (n.signum() < 0) {
+            remainder = remainder.negate();
+        }
+        return new BigInteger[] {quotient, remainder};
+    }
+
+    /**
+     * Primi bits bit di x (completati con zeri se x è più corto)
+     */
+    private static BigInteger leadingBits(BigInteger x, int bits) {
+        int length = x.bitLength();
+        return length >= bits ? x.shiftRight(length - bits) : x.shiftLeft(bits - length);
+    }
+}
@@ -0,0 +1,446 @@
+import java.math.BigInteger;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Moltiplicazione di interi grandi con la trasformata numerica (NTT)
+ * Gli operandi vengono divisi in limb da 24 bit e la convoluzione è calcolata modulo tre primi
+ * della forma c * 2^k + 1, poi ricostruita con il teorema cinese del resto (algoritmo di Garner):
+ * ogni coefficiente è minore di 2^73, mentre il prodotto dei tre primi supera 2^87.
+ * Costo O(n log n) contro O(n^1.46) del Toom-Cook 3 di BigInteger.
+ * Se chiamata da un task del ForkJoinPool, le tre convoluzioni e i livelli più grandi di ciascuna
+ * trasformata vengono eseguiti in parallelo nello stesso pool; altrimenti il calcolo è sequenziale
+ */
+public final class NttMultiplier {
+
+    // Sotto questa dimensione (in bit dell'operando minore) BigInteger.multiply è più veloce (MultiplicationBenchmark)
+    static final int THRESHOLD_BITS = 1 << 19;
+
+    // Primi p = c * 2^k + 1 con le rispettive radici primitive: tutti < 2^31, prodotti in un long
+    private static final int[] PRIMES = {167772161, 469762049, 2113929217};
+    private static final int[] GENERATORS = {3, 3, 5};
+
+    // Lunghezza massima della trasformata: 2^25 divide p - 1 per tutti i primi
+    private static final int MAX_LENGTH = 1 << 25;
+
+    private static final int LIMB_BITS = 24;
+    private static final int LIMB_BYTES = LIMB_BITS / 8;
+    private static final int LIMB_MASK = (1 << LIMB_BITS) - 1;
+
+    // Sotto questa lunghezza le trasformate procedono per livelli, con i dati nella cache
+    private static final int CACHE_LENGTH = 1 << 13;
+
+    // Sotto questa lunghezza le trasformate non vengono suddivise in task
+    private static final int PARALLEL_LENGTH = 1 << 16;
+
+    private NttMultiplier() {
+    }
+
+    /**
+     * Prodotto a * b: con la NTT sopra la soglia, altrimenti con BigInteger.multiply
+     */
+    public static BigInteger multiply(BigInteger a, BigInteger b) {
+        if (Math.min(a.bitLength(), b.bitLength()) < THRESHOLD_BITS) {
+            return a.multiply(b);
+        }
+        BigInteger product = multiplyMagnitudes(a.abs(), b.abs(), a == b);
+        return a.signum() * b.signum() < 0 ? product.negate() : product;
+    }
+
+    /**
+     * Quadrato di a: una sola trasformata diretta per primo
+     */
+    public static BigInteger square(BigInteger a) {
+        return multiply(a, a);
+    }
+
+    /**
+     * base^exponent per quadrati successivi: i quadrati grandi passano dalla NTT
+     */
+    public static BigInteger pow(BigInteger base, int exponent) {
+        if (exponent < 0) {
+            throw new ArithmeticException("Esponente negativo: " + exponent);
+        }
+        BigInteger result = BigInteger.ONE;
+        for (int bit = 31 - Integer.numberOfLeadingZeros(exponent); bit >= 0; bit--) {
+            result = square(result);
+            if ((exponent >>> bit & 1) == 1) {
+                result = multiply(result, base);
+            }
+        }
+        return result;
+    }
+
+    private static BigInteger multiplyMagnitudes(BigInteger a, BigInteger b, boolean square) {
+        int limbsA = (a.bitLength() + LIMB_BITS - 1) / LIMB_BITS;
+        int limbsB = (b.bitLength() + LIMB_BITS - 1) / LIMB_BITS;
+        if ((long) limbsA + limbsB <= MAX_LENGTH) {
+            return convolve(a, b, limbsA, limbsB, square);
+        }
+
+        // Oltre la lunghezza massima l'operando maggiore viene diviso a metà (Karatsuba se lo sono entrambi)
+        if (a.bitLength() < b.bitLength()) {
+            BigInteger swap = a;
+            a = b;
+            b = swap;
+        }
+        int half = a.bitLength() / 2;
+        BigInteger a1 = a.shiftRight(half);
+        BigInteger a0 = a.subtract(a1.shiftLeft(half));
+        if (b.bitLength() <= half) {
+            return multiply(a1, b).shiftLeft(half).add(multiply(a0, b));
+        }
+        BigInteger b1 = b.shiftRight(half);
+        BigInteger b0 = b.subtract(b1.shiftLeft(half));
+        BigInteger high = square ? square(a1) : multiply(a1, b1);
+        BigInteger low = square ? square(a0) : multiply(a0, b0);
+        BigInteger sumA = a1.add(a0);
+        BigInteger middle = (square ? square(sumA) : multiply(sumA, b1.add(b0))).subtract(high).subtract(low);
+        return high.shiftLeft(2 * half).add(middle.shiftLeft(half)).add(low);
+    }
+
+    /**
+     * Convoluzione dei limb modulo i tre primi e ricostruzione del prodotto
+     */
+    private static BigInteger convolve(BigInteger a, BigInteger b, int limbsA, int limbsB, boolean square) {
+        // Una posizione in più della convoluzione, per il riporto finale
+        int length = Integer.highestOneBit(limbsA + limbsB);
+        if (length < limbsA + limbsB) {
+            length <<= 1;
+        }
+        int[] digitsA = toLimbs(a, limbsA);
+        int[] digitsB = square ? null : toLimbs(b, limbsB);
+
+        int[][] residues = new int[PRIMES.length][];
+        if (ForkJoinTask.inForkJoinPool()) {
+            ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[PRIMES.length];
+            for (int i = 0; i < PRIMES.length; i++) {
+                int prime = i;
+                int size = length;
+                tasks[i] = ForkJoinTask.adapt(() -> residues[prime] = cyclicConvolution(digitsA, digitsB, size, prime));
+            }
+            ForkJoinTask.invokeAll(tasks);
+        } else {
+            for (int i = 0; i < PRIMES.length; i++) {
+                residues[i] = cyclicConvolution(digitsA, digitsB, length, i);
+            }
+        }
+        return fromResidues(residues, limbsA + limbsB);
+    }
+
+    /**
+     * Convoluzione modulo PRIMES[prime]: trasformata diretta, prodotto punto a punto, trasformata inversa
+     */
+    private static int[] cyclicConvolution(int[] digitsA, int[] digitsB, int length, int prime) {
+        Transform transform = new Transform(PRIMES[prime], GENERATORS[prime], length);
+        int[] x = new int[length];
+        System.arraycopy(digitsA, 0, x, 0, digitsA.length);
+        transform.forward(x, 0, length);
+        int[] y = x;
+        if (digitsB != null) {
+            y = new int[length];
+            System.arraycopy(digitsB, 0, y, 0, digitsB.length);
+            transform.forward(y, 0, length);
+        }
+
+        // Prodotto punto a punto, già diviso per la lunghezza
+        int scale = transform.power(length, transform.p - 2);
+        int scaleShoup = shoup(scale, transform.p);
+        for (int i = 0; i < length; i++) {
+            x[i] = multiplyShoup(transform.multiply(x[i], y[i]), scale, scaleShoup, transform.p);
+        }
+        transform.inverse(x, 0, length);
+        return x;
+    }
+
+    /**
+     * Ricostruzione di Garner: c = r0 + p0 * (k1 + p1 * k2), con il riporto tenuto in tre parole da 32 bit
+     */
+    private static BigInteger fromResidues(int[][] residues, int limbs) {
+        long p0 = PRIMES[0];
+        long p1 = PRIMES[1];
+        long p2 = PRIMES[2];
+        Transform t1 = new Transform(PRIMES[1], GENERATORS[1], 1);
+        Transform t2 = new Transform(PRIMES[2], GENERATORS[2], 1);
+        int p0InverseModP1 = t1.power((int) (p0 % p1), (int) p1 - 2);
+        int p0p1InverseModP2 = t2.power((int) (p0 * p1 % p2), (int) p2 - 2);
+        int p0ModP2 = (int) (p0 % p2);
+
+        byte[] bytes = new byte[LIMB_BYTES * limbs + 1];
+        long carry0 = 0;
+        long carry1 = 0;
+        long carry2 = 0;
+        for (int i = 0; i < limbs; i++) {
+            long r0 = residues[0][i];
+            long r1 = residues[1][i];
+            long r2 = residues[2][i];
+            int k1 = t1.multiply((int) Math.floorMod(r1 - r0, p1), p0InverseModP1);
+            long partial = (r0 + t2.multiply(p0ModP2, k1)) % p2;
+            int k2 = t2.multiply((int) Math.floorMod(r2 - partial, p2), p0p1InverseModP2);
+            long y = k1 + p1 * k2;
+
+            // Coefficiente più riporto, in parole da 32 bit
+            long low = p0 * (y & 0xFFFFFFFFL);
+            long high = p0 * (y >>> 32);
+            long s0 = r0 + (low & 0xFFFFFFFFL) + carry0;
+            long s1 = (low >>> 32) + (high & 0xFFFFFFFFL) + carry1 + (s0 >>> 32);
+            long s2 = (high >>> 32) + carry2 + (s1 >>> 32);
+            s0 &= 0xFFFFFFFFL;
+            s1 &= 0xFFFFFFFFL;
+
+            int index = bytes.length - 1 - LIMB_BYTES * i;
+            bytes[index] = (byte) s0;
+            bytes[index - 1] = (byte) (s0 >>> 8);
+            bytes[index - 2] = (byte) (s0 >>> 16);
+            carry0 = (s0 >>> LIMB_BITS) | ((s1 & LIMB_MASK) << (32 - LIMB_BITS));
+            carry1 = (s1 >>> LIMB_BITS) | ((s2 & LIMB_MASK) << (32 - LIMB_BITS));
+            carry2 = s2 >>> LIMB_BITS;
+        }
+        return new BigInteger(1, bytes);
+    }
+
+    /**
+     * Limb da 24 bit, dal meno significativo
+     */
+    private static int[] toLimbs(BigInteger value, int limbs) {
+        byte[] bytes = value.toByteArray();
+        int[] digits = new int[limbs];
+        for (int i = 0; i < limbs; i++) {
+            int index = bytes.length - 1 - LIMB_BYTES * i;
+            int limb = 0;
+            for (int j = LIMB_BYTES - 1; j >= 0; j--) {
+                limb = (limb << 8) | (index - j >= 0 ? bytes[index - j] & 0xFF : 0);
+            }
+            digits[i] = limb;
+        }
+        return digits;
+    }
+
+    /**
+     * floor(w * 2^32 / p), per moltiplicare per la costante w senza divisioni (metodo di Shoup)
+     */
+    private static int shoup(int w, int p) {
+        return (int) (((long) w << 32) / p);
+    }
+
+    /**
+     * x * w mod p con x, w < p e wShoup = shoup(w, p)
+     */
+    private static int multiplyShoup(int x, int w, int wShoup, int p) {
+        long quotient = (x * (wShoup & 0xFFFFFFFFL)) >>> 32;
+        int remainder = (int) ((long) x * w - quotient * p);
+        return remainder >= p || remainder < 0 ? remainder - p : remainder;
+    }
+
+    /**
+     * Trasformata modulo un primo: decimazione in frequenza per la diretta (uscita in ordine
+     * bit-reversed) e in tempo per l'inversa (ingresso bit-reversed), senza permutazioni.
+     * Sopra CACHE_LENGTH la ricorsione procede in profondità, così i livelli bassi restano in cache
+     */
+    private static final class Transform {
+        final int p;
+        private final double inverseP;
+
+        // Per un blocco di dimensione s le radici w_s^j (j < s/2) sono in roots[s/2 + j], contigue
+        private final int[] roots;
+        private final int[] rootsShoup;
+        private final int[] inverseRoots;
+        private final int[] inverseRootsShoup;
+
+        Transform(int p, int generator, int length) {
+            this.p = p;
+            this.inverseP = 1.0 / p;
+            roots = new int[length];
+            rootsShoup = new int[length];
+            inverseRoots = new int[length];
+            inverseRootsShoup = new int[length];
+            if (length < 2) {
+                return;
+            }
+            int w = power(generator, (p - 1) / length);
+            int inverseW = power(w, p - 2);
+            int half = length / 2;
+            roots[half] = 1;
+            inverseRoots[half] = 1;
+            for (int j = 1; j < half; j++) {
+                roots[half + j] = multiply(roots[half + j - 1], w);
+                inverseRoots[half + j] = multiply(inverseRoots[half + j - 1], inverseW);
+            }
+
+            // w_s^j = w_2s^(2j)
+            for (int s = half; s >= 2; s >>= 1) {
+                for (int j = 0; j < s / 2; j++) {
+                    roots[s / 2 + j] = roots[s + 2 * j];
+                    inverseRoots[s / 2 + j] = inverseRoots[s + 2 * j];
+                }
+            }
+            for (int i = 1; i < length; i++) {
+                rootsShoup[i] = shoup(roots[i], p);
+                inverseRootsShoup[i] = shoup(inverseRoots[i], p);
+            }
+        }
+
+        /**
+         * a * b mod p tramite il reciproco in doppia precisione, corretto di un'unità se necessario
+         */
+        int multiply(int a, int b) {
+            long product = (long) a * b;
+            long quotient = (long) ((double) product * inverseP);
+            long remainder = product - quotient * p;
+            if (remainder < 0) {
+                remainder += p;
+            } else if (remainder >= p) {
+                remainder -= p;
+            }
+            return (int) remainder;
+        }
+
+        int power(int base, int exponent) {
+            int result = 1;
+            int factor = base;
+            while (exponent > 0) {
+                if ((exponent & 1) == 1) {
+                    result = multiply(result, factor);
+                }
+                factor = multiply(factor, factor);
+                exponent >>= 1;
+            }
+            return result;
+        }
+
+        void forward(int[] a, int offset, int n) {
+            if (n <= CACHE_LENGTH) {
+                for (int size = n; size >= 2; size >>= 1) {
+                    for (int start = offset; start < offset + n; start += size) {
+                        forwardButterflies(a, start, size, 0, size / 2);
+                    }
+                }
+            } else if (n >= PARALLEL_LENGTH && ForkJoinTask.inForkJoinPool()) {
+                new Butterflies(this, a, offset, n, 0, n / 2, false).invoke();
+                ForkJoinTask.invokeAll(new Half(this, a, offset, n / 2, false), new Half(this, a, offset + n / 2, n / 2, false));
+            } else {
+                forwardButterflies(a, offset, n, 0, n / 2);
+                forward(a, offset, n / 2);
+                forward(a, offset + n / 2, n / 2);
+            }
+        }
+
+        void inverse(int[] a, int offset, int n) {
+            if (n <= CACHE_LENGTH) {
+                for (int size = 2; size <= n; size <<= 1) {
+                    for (int start = offset; start < offset + n; start += size) {
+                        inverseButterflies(a, start, size, 0, size / 2);
+                    }
+                }
+            } else if (n >= PARALLEL_LENGTH && ForkJoinTask.inForkJoinPool()) {
+                ForkJoinTask.invokeAll(new Half(this, a, offset, n / 2, true), new Half(this, a, offset + n / 2, n / 2, true));
+                new Butterflies(this, a, offset, n, 0, n / 2, true).invoke();
+            } else {
+                inverse(a, offset, n / 2);
+                inverse(a, offset + n / 2, n / 2);
+                inverseButterflies(a, offset, n, 0, n / 2);
+            }
+        }
+
+        /**
+         * Farfalle j in [from, to) del blocco [start, start + size): (u, v) -> (u + v, (u - v) * w^j)
+         */
+        void forwardButterflies(int[] a, int start, int size, int from, int to) {
+            int half = size / 2;
+            for (int j = from; j < to; j++) {
+                int u = a[start + j];
+                int v = a[start + j + half];
+                int sum = u - (p - v);
+                int difference = u - v;
+                a[start + j] = sum < 0 ? sum + p : sum;
+                a[start + j + half] = multiplyShoup(difference < 0 ? difference + p : difference,
+                                                    roots[half + j], rootsShoup[half + j], p);
+            }
+        }
+
+        /**
+         * Farfalle j in [from, to) del blocco [start, start + size): (u, v) -> (u + v * w^-j, u - v * w^-j)
+         */
+        void inverseButterflies(int[] a, int start, int size, int from, int to) {
+            int half = size / 2;
+            for (int j = from; j < to; j++) {
+                int u = a[start + j];
+                int v = multiplyShoup(a[start + j + half], inverseRoots[half + j], inverseRootsShoup[half + j], p);
+                int sum = u - (p - v);
+                int difference = u - v;
+                a[start + j] = sum < 0 ? sum + p : sum;
+                a[start + j + half] = difference < 0 ? difference + p : difference;
+            }
+        }
+    }
+
+    /**
+     * Trasformata di una metà del blocco, come task fork/join
+     */
+    private static final class Half extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Transform transform;
+        private final int[] a;
+        private final int offset;
+        private final int n;
+        private final boolean inverse;
+
+        Half(Transform transform, int[] a, int offset, int n, boolean inverse) {
+            this.transform = transform;
+            this.a = a;
+            this.offset = offset;
+            this.n = n;
+            this.inverse = inverse;
+        }
+
+        @Override
+        protected void compute() {
+            if (inverse) {
+                transform.inverse(a, offset, n);
+            } else {
+                transform.forward(a, offset, n);
+            }
+        }
+    }
+
+    /**
+     * Farfalle di un livello, suddivise in task
+     */
+    private static final class Butterflies extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Transform transform;
+        private final int[] a;
+        private final int start;
+        private final int size;
+        private final int from;
+        private final int to;
+        private final boolean inverse;
+
+        Butterflies(Transform transform, int[] a, int start, int size, int from, int to, boolean inverse) {
+            this.transform = transform;
+            this.a = a;
+            this.start = start;
+            this.size = size;
+            this.from = from;
+            this.to = to;
+            this.inverse = inverse;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_LENGTH) {
+                if (inverse) {
+                    transform.inverseButterflies(a, start, size, from, to);
+                } else {
+                    transform.forwardButterflies(a, start, size, from, to);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Butterflies(transform, a, start, size, from, middle, inverse),
+                      new Butterflies(transform, a, start, size, middle, to, inverse));
+        }
+    }
+}
@@ -0,0 +1,355 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Algoritmo di Chudnovsky con operandi su disco, per risultati più grandi della memoria disponibile
+ * I blocchi di termini vengono valutati in memoria con HypergeometricBinarySplitting e uniti su disco.
+ * La divisione finale e la radice quadrata usano solo moltiplicazioni: 1/T e 1/√10005 sono calcolati
+ * con il metodo di Newton, raddoppiando la precisione a ogni passo. Il risultato in virgola fissa
+ * binaria viene convertito in decimale dividendo ricorsivamente la frazione in due metà di cifre.
+ * In memoria restano solo i blocchi in elaborazione, di dimensione proporzionale al budget
+ */
+public class OutOfCoreChudnovsky {
+
+    private static final long A = 10005;
+
+    // 426880 * 10005: π = 426880 * √10005 * Q / T = 426880 * 10005 * (1 / √10005) * Q / T
+    private static final long PI_FACTOR = 426880L * A;
+
+    // Byte di guardia della virgola fissa binaria
+    private static final int GUARD_BYTES = 16;
+
+    // Cifre di guardia per il numero di termini della serie
+    private static final int GUARD_DIGITS = 100;
+
+    // Precisione iniziale del metodo di Newton, da una stima in doppia precisione
+    private static final int NEWTON_START_BYTES = 4;
+
+    private static final double BITS_PER_DIGIT = Math.log(10) / Math.log(2);
+
+    private final CalculationListener callback;
+    private final CalculationMetrics metrics;
+    private final ForkJoinPool pool;
+    private final Path directory;
+    private final long memoryBudget;
+    private final int blockBytes;
+    private final Map<Integer, DiskBigInteger> powersOfTen = new HashMap<>();
+
+    /**
+     * @param pool pool per la valutazione parallela dei blocchi, null per la valutazione sequenziale
+     * @param directory cartella dei file temporanei
+     * @param memoryBudget memoria (in byte) a disposizione dei blocchi in elaborazione
+     * @param metrics metriche in cui registrare la durata delle fasi
+     */
+    public OutOfCoreChudnovsky(CalculationListener callback, ForkJoinPool pool, Path directory, long memoryBudget,
+                               CalculationMetrics metrics) {
+        this.callback = callback;
+        this.metrics = metrics;
+        this.pool = pool;
+        this.directory = directory;
+        this.memoryBudget = memoryBudget;
+        // Una diagonale del prodotto su disco tiene in memoria circa otto blocchi
+        this.blockBytes = (int) Math.max(1 << 12, Math.min(1 << 27, memoryBudget / 16));
+    }
+
+    /**
+     * Scrive la parte intera e le prime digits cifre decimali (troncate) di π
+     * Lancia CancellationException se il calcolo viene fermato
+     */
+    public void write(int digits, DigitSink sink) throws IOException {
+        long fractionBytes = bytesFor(digits);
+        long terms = HypergeometricBinarySplitting.termsFor(digits + GUARD_DIGITS);
+        try {
+            DiskBigInteger pi;
+            long begin = System.nanoTime();
+            try (Segment series = evaluateSeries(terms)) {
+                metrics.endPhase(CalculationMetrics.Phase.SERIES, begin);
+                metrics.addTerms(terms);
+                metrics.recordOperandBits(8 * Math.max(series.q.byteLength(), series.t.byteLength()));
+
+                begin = System.nanoTime();
+                long sqrtBefore = metrics.getPhaseNanos(CalculationMetrics.Phase.SQRT);
+                pi = divide(series.q, series.t, fractionBytes);
+                metrics.endPhase(CalculationMetrics.Phase.DIVISION, begin, CalculationMetrics.Phase.SQRT, sqrtBefore);
+            }
+            callback.onProgress(0.9);
+
+            begin = System.nanoTime();
+            long outputBefore = metrics.getPhaseNanos(CalculationMetrics.Phase.OUTPUT);
+            DigitSink timed = metrics.timed(sink);
+            try (DiskBigInteger scaled = pi;
+                 DiskBigInteger integerPart = scaled.shiftRight(fractionBytes);
+                 DiskBigInteger fraction = scaled.slice(0, fractionBytes)) {
+                timed.begin(integerPart.toBigInteger().toString(), digits);
+                convertFraction(new RadixConverter(pool), fraction, fractionBytes, digits, timed);
+                timed.end();
+            } finally {
+                metrics.endPhase(CalculationMetrics.Phase.RADIX_CONVERSION, begin, CalculationMetrics.Phase.OUTPUT, outputBefore);
+            }
+        } finally {
+            for (DiskBigInteger power : powersOfTen.values()) {
+                power.close();
+            }
+            powersOfTen.clear();
+        }
+    }
+
+    /**
+     * Intervallo di termini [start, end) con i prodotti parziali su disco
+     */
+    private static final class Segment implements Closeable {
+        final long start;
+        final long end;
+        final DiskBigInteger p;
+        final DiskBigInteger q;
+        final DiskBigInteger t;
+
+        Segment(long start, long end, DiskBigInteger p, DiskBigInteger q, DiskBigInteger t) {
+            this.start = start;
+            this.end = end;
+            this.p = p;
+            this.q = q;
+            this.t = t;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (DiskBigInteger value : new DiskBigInteger[] {p, q, t}) {
+                if (value != null) {
+                    value.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Valuta la serie a blocchi di termini in memoria, uniti su disco come in un contatore binario
+     */
+    private Segment evaluateSeries(long terms) throws IOException {
+        HypergeometricBinarySplitting splitting =
+                new HypergeometricBinarySplitting(HypergeometricSeries.PI, callback, 0.1, 0.7, pool);
+        long blockTerms = blockTermsFor(terms);
+        List<Segment> stack = new ArrayList<>();
+        try {
+            for (long next = 0; next < terms; ) {
+                long end = Math.min(terms, next + blockTerms);
+                HypergeometricBinarySplitting.Result block = splitting.computeBlock(next, end, terms);
+                Segment segment = new Segment(next, end, DiskBigInteger.of(block.p, directory, blockBytes),
+                                              DiskBigInteger.of(block.q, directory, blockBytes),
+                                              DiskBigInteger.of(block.t, directory, blockBytes));
+                while (!stack.isEmpty() && stack.get(stack.size() - 1).end - stack.get(stack.size() - 1).start
+                                           == segment.end - segment.start) {
+                    segment = merge(stack.remove(stack.size() - 1), segment, true);
+                }
+                stack.add(segment);
+                next = end;
+            }
+
+            // Unione finale da destra; P dell'intervallo completo non serve
+            Segment result = stack.remove(stack.size() - 1);
+            while (!stack.isEmpty()) {
+                result = merge(stack.remove(stack.size() - 1), result, !stack.isEmpty());
+            }
+            return result;
+        } catch (IOException | RuntimeException e) {
+            for (Segment segment : stack) {
+                segment.close();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * P = P1*P2, Q = Q1*Q2, T = T1*Q2 + P1*T2; i due intervalli vengono chiusi
+     */
+    private Segment merge(Segment left, Segment right, boolean needP) throws IOException {
+        try (Segment l = left; Segment r = right) {
+            DiskBigInteger p = needP ? l.p.multiply(r.p, callback) : null;
+            DiskBigInteger q = l.q.multiply(r.q, callback);
+            DiskBigInteger t;
+            try (DiskBigInteger t1 = l.t.multiply(r.q, callback);
+                 DiskBigInteger t2 = l.p.multiply(r.t, callback)) {
+                t = t1.add(t2);
+            }
+            return new Segment(l.start, r.end, p, q, t);
+        }
+    }
+
+    /**
+     * Termini per blocco: potenza di due tale che P, Q, T del blocco occupino circa un sedicesimo del budget
+     */
+    private long blockTermsFor(long terms) {
+        double bitsPerTerm = 3 * Math.log(terms) / Math.log(2) + 54;
+        long maxTerms = (long) (memoryBudget / 16 * 8 / bitsPerTerm);
+        return Long.highestOneBit(Math.max(1, maxTerms));
+    }
+
+    /**
+     * π * 2^(8 * fractionBytes) = 426880 * 10005 * (1 / √10005) * Q / T
+     */
+    private DiskBigInteger divide(DiskBigInteger q, DiskBigInteger t, long fractionBytes) throws IOException {
+        if (t.signum() <= 0 || q.signum() <= 0) {
+            throw new ArithmeticException("Errore di calcolo: somma della serie non positiva");
+        }
+
+        // y = 256 / √10005 e r = 2^(8 * lt) / T in virgola fissa, con lt byte di T
+        DiskBigInteger product;
+        try (DiskBigInteger y = inverseSqrt(fractionBytes);
+             DiskBigInteger r = reciprocal(t, fractionBytes);
+             DiskBigInteger yr = y.multiply(r, callback)) {
+            product = yr.shiftRight(fractionBytes);
+        }
+        callback.onProgress(0.8);
+
+        // Solo i byte più significativi di Q contribuiscono alla precisione richiesta
+        long dropped = Math.max(0, q.byteLength() - fractionBytes - GUARD_BYTES);
+        long shift = dropped - t.byteLength() - 1;
+        try (DiskBigInteger yr = product;
+             DiskBigInteger qTop = q.shiftRight(dropped);
+             DiskBigInteger full = yr.multiply(qTop, callback);
+             DiskBigInteger scaled = full.multiply(PI_FACTOR)) {
+            metrics.recordOperandBits(8 * full.byteLength());
+            return shift < 0 ? scaled.shiftRight(-shift) : scaled.shiftLeft(shift);
+        }
+    }
+
+    /**
+     * 2^(8 * (bytes + lt)) / T con il metodo di Newton: r' = r + r * (1 - t * r), dove t = T / 2^(8 * lt)
+     */
+    private DiskBigInteger reciprocal(DiskBigInteger t, long bytes) throws IOException {
+        double estimate;
+        try (DiskBigInteger head = top(t, 8)) {
+            estimate = head.toBigInteger().doubleValue() / Math.pow(2, 64);
+        }
+        DiskBigInteger r = DiskBigInteger.of(BigInteger.valueOf((long) (Math.pow(2, 8 * NEWTON_START_BYTES) / estimate)),
+                                             directory, blockBytes);
+        try {
+            for (long p = NEWTON_START_BYTES; p < bytes; ) {
+                long q = Math.min(2 * p - 1, bytes);
+                DiskBigInteger next;
+                try (DiskBigInteger tq = top(t, q);
+                     DiskBigInteger product = tq.multiply(r, callback);
+                     DiskBigInteger one = DiskBigInteger.powerOfTwo(q + p, directory, blockBytes);
+                     DiskBigInteger error = one.subtract(product);
+                     DiskBigInteger correction = r.multiply(error, callback);
+                     DiskBigInteger shiftedCorrection = correction.shiftRight(2 * p);
+                     DiskBigInteger shifted = r.shiftLeft(q - p)) {
+                    next = shifted.add(shiftedCorrection);
+                }
+                r.close();
+                r = next;
+                p = q;
+            }
+            return r;
+        } catch (IOException | RuntimeException e) {
+            r.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 256 / √10005 * 2^(8 * bytes) con il metodo di Newton: y' = y + y * (1 - a * y^2) / 2,
+     * dove a = 10005 / 2^16 è normalizzato perché y abbia tutte le cifre significative
+     */
+    private DiskBigInteger inverseSqrt(long bytes) throws IOException {
+        long begin = System.nanoTime();
+        DiskBigInteger y = DiskBigInteger.of(BigInteger.valueOf((long) (Math.pow(2, 8 * (NEWTON_START_BYTES + 1)) / Math.sqrt(A))),
+                                             directory, blockBytes);
+        try {
+            for (long p = NEWTON_START_BYTES; p < bytes; ) {
+                long q = Math.min(2 * p - 1, bytes);
+                DiskBigInteger next;
+                try (DiskBigInteger square = y.multiply(y, callback);
+                     DiskBigInteger scaledSquare = square.multiply(A);
+                     DiskBigInteger one = DiskBigInteger.powerOfTwo(2 * p + 2, directory, blockBytes);
+                     DiskBigInteger error = one.subtract(scaledSquare);
+                     DiskBigInteger product = y.multiply(error, callback);
+                     DiskBigInteger halved = product.multiply(128);
+                     DiskBigInteger correction = halved.shiftRight(3 * p + 3 - q);
+                     DiskBigInteger shifted = y.shiftLeft(q - p)) {
+                    next = shifted.add(correction);
+                }
+                y.close();
+                y = next;
+                p = q;
+            }
+            metrics.endPhase(CalculationMetrics.Phase.SQRT, begin);
+            return y;
+        } catch (IOException | RuntimeException e) {
+            y.close();
+            throw e;
+        }
+    }
+
+    /**
+     * I primi bytes byte di x, cioè x / 2^(8 * (lx - bytes)) con lx byte di x
+     */
+    private static DiskBigInteger top(DiskBigInteger x, long bytes) throws IOException {
+        long length = x.byteLength();
+        return length >= bytes ? x.shiftRight(length - bytes) : x.shiftLeft(bytes - length);
+    }
+
+    /**
+     * Cifre decimali della frazione f / 2^(8 * fractionBytes): le prime metà delle cifre dipendono
+     * solo dai byte più significativi, le altre dalla parte frazionaria di f * 10^(metà)
+     */
+    private void convertFraction(RadixConverter converter, DiskBigInteger f, long fractionBytes, int digits,
+                                 DigitSink sink) throws IOException {
+        if (callback.isStopped()) {
+            throw new CancellationException();
+        }
+        if (fractionBytes <= blockBytes) {
+            converter.writeFraction(f.toBigInteger(), fractionBytes, digits, sink);
+            return;
+        }
+        int high = digits / 2;
+        int low = digits - high;
+        long highBytes = bytesFor(high);
+        long lowBytes = bytesFor(low);
+        try (DiskBigInteger head = f.shiftRight(fractionBytes - highBytes)) {
+            convertFraction(converter, head, highBytes, high, sink);
+        }
+        try (DiskBigInteger shifted = f.multiply(powerOfTen(high), callback);
+             DiskBigInteger tail = shifted.slice(fractionBytes - lowBytes, fractionBytes)) {
+            convertFraction(converter, tail, lowBytes, low, sink);
+        }
+    }
+
+    /**
+     * 10^exponent, conservato per le conversioni successive
+     */
+    private DiskBigInteger powerOfTen(int exponent) throws IOException {
+        DiskBigInteger power = powersOfTen.get(exponent);
+        if (power != null) {
+            return power;
+        }
+        if (exponent * BITS_PER_DIGIT / 8 < blockBytes) {
+            power = DiskBigInteger.of(BigInteger.TEN.pow(exponent), directory, blockBytes);
+        } else {
+            DiskBigInteger half = powerOfTen(exponent / 2);
+            power = half.multiply(half, callback);
+            if (exponent % 2 == 1) {
+                try (DiskBigInteger square = power) {
+                    power = square.multiply(10);
+                }
+            }
+        }
+        powersOfTen.put(exponent, power);
+        return power;
+    }
+
+    /**
+     * Byte di frazione binaria necessari per digits cifre decimali
+     */
+    private static long bytesFor(long digits) {
+        return (long) Math.ceil(digits * BITS_PER_DIGIT / 8) + GUARD_BYTES;
+    }
+}
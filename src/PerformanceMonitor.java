@@ -0,0 +1,200 @@
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Raccolta delle metriche di tutti i calcoli della JVM, esposta via JMX come OBJECT_NAME
+ * Ogni PiCalculator vi registra l'inizio e la fine dei propri calcoli; la registrazione
+ * sul server MBean della piattaforma è a carico dell'applicazione (register())
+ */
+public final class PerformanceMonitor implements PerformanceMonitorMBean {
+
+    public static final String OBJECT_NAME = "pigreco:type=PerformanceMonitor";
+
+    private static final PerformanceMonitor INSTANCE = new PerformanceMonitor();
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong completedRuns = new AtomicLong();
+    private final AtomicLong failedRuns = new AtomicLong();
+    private final AtomicInteger activeRuns = new AtomicInteger();
+    private final AtomicLong totalDigits = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private volatile CalculationMetrics last;
+
+    private PerformanceMonitor() {
+    }
+
+    public static PerformanceMonitor getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registra il monitor sul server MBean della piattaforma; le chiamate successive non hanno effetto
+     */
+    public static synchronized void register() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(OBJECT_NAME);
+        if (!server.isRegistered(name)) {
+            server.registerMBean(INSTANCE, name);
+        }
+    }
+
+    void started() {
+        activeRuns.incrementAndGet();
+    }
+
+    void finished(CalculationMetrics metrics) {
+        activeRuns.decrementAndGet();
+        runs.incrementAndGet();
+        if (CalculationMetrics.OUTCOME_COMPLETED.equals(metrics.getOutcome())) {
+            completedRuns.incrementAndGet();
+            totalDigits.addAndGet(metrics.getDigits());
+        } else if (CalculationMetrics.OUTCOME_FAILED.equals(metrics.getOutcome())) {
+            failedRuns.incrementAndGet();
+        }
+        totalNanos.addAndGet(metrics.getTotalNanos());
+        last = metrics;
+    }
+
+    /**
+     * Metriche dell'ultimo calcolo concluso, null se nessuno
+     */
+    public CalculationMetrics getLast() {
+        return last;
+    }
+
+    @Override
+    public long getRunCount() {
+        return runs.get();
+    }
+
+    @Override
+    public long getCompletedRunCount() {
+        return completedRuns.get();
+    }
+
+    @Override
+    public long getFailedRunCount() {
+        return failedRuns.get();
+    }
+
+    @Override
+    public int getActiveRunCount() {
+        return activeRuns.get();
+    }
+
+    @Override
+    public long getTotalDigits() {
+        return totalDigits.get();
+    }
+
+    @Override
+    public long getTotalMillis() {
+        return totalNanos.get() / 1_000_000;
+    }
+
+    @Override
+    public String getLastAlgorithm() {
+        CalculationMetrics metrics = last;
+        return metrics != null ? metrics.getAlgorithm() : null;
+    }
+
+    @Override
+    public int getLastDigits() {
+        CalculationMetrics metrics = last;
+        return metrics != null ? metrics.getDigits() : 0;
+    }
+
+    @Override
+    public int getLastThreads() {
+        CalculationMetrics metrics = last;
+        return metrics != null ? metrics.getThreads() : 0;
+    }
+
+    @Override
+    public String getLastOutcome() {
+        CalculationMetrics metrics = last;
+        return metrics != null ? metrics.getOutcome() : null;
+    }
+
+    @Override
+    public double getLastTotalMillis() {
+        return lastDouble(metrics -> metrics.getTotalNanos() / 1e6);
+    }
+
+    @Override
+    public double getLastSeriesMillis() {
+        return lastPhaseMillis(CalculationMetrics.Phase.SERIES);
+    }
+
+    @Override
+    public double getLastSqrtMillis() {
+        return lastPhaseMillis(CalculationMetrics.Phase.SQRT);
+    }
+
+    @Override
+    public double getLastDivisionMillis() {
+        return lastPhaseMillis(CalculationMetrics.Phase.DIVISION);
+    }
+
+    @Override
+    public double getLastRadixConversionMillis() {
+        return lastPhaseMillis(CalculationMetrics.Phase.RADIX_CONVERSION);
+    }
+
+    @Override
+    public double getLastOutputMillis() {
+        return lastPhaseMillis(CalculationMetrics.Phase.OUTPUT);
+    }
+
+    @Override
+    public long getLastTerms() {
+        return lastLong(CalculationMetrics::getTerms);
+    }
+
+    @Override
+    public double getLastTermsPerSecond() {
+        return lastDouble(CalculationMetrics::getTermsPerSecond);
+    }
+
+    @Override
+    public double getLastDigitsPerSecond() {
+        return lastDouble(CalculationMetrics::getDigitsPerSecond);
+    }
+
+    @Override
+    public long getLastAllocatedBytes() {
+        return lastLong(CalculationMetrics::getAllocatedBytes);
+    }
+
+    @Override
+    public long getLastPeakOperandBytes() {
+        return lastLong(CalculationMetrics::getPeakOperandBytes);
+    }
+
+    @Override
+    public String getLastRunJson() {
+        CalculationMetrics metrics = last;
+        return metrics != null ? metrics.toJson() : null;
+    }
+
+    private double lastPhaseMillis(CalculationMetrics.Phase phase) {
+        return lastDouble(metrics -> metrics.getPhaseNanos(phase) / 1e6);
+    }
+
+    private double lastDouble(ToDoubleFunction<CalculationMetrics> value) {
+        CalculationMetrics metrics = last;
+        return metrics != null ? value.applyAsDouble(metrics) : 0;
+    }
+
+    private long lastLong(ToLongFunction<CalculationMetrics> value) {
+        CalculationMetrics metrics = last;
+        return metrics != null ? value.applyAsLong(metrics) : 0;
+    }
+}
@@ -0,0 +1,53 @@
+/**
+ * Interfaccia JMX di PerformanceMonitor: totali dall'avvio e metriche dell'ultimo calcolo concluso
+ * I tempi sono in millisecondi, le dimensioni in byte
+ */
+public interface PerformanceMonitorMBean {
+
+    long getRunCount();
+
+    long getCompletedRunCount();
+
+    long getFailedRunCount();
+
+    int getActiveRunCount();
+
+    long getTotalDigits();
+
+    long getTotalMillis();
+
+    String getLastAlgorithm();
+
+    int getLastDigits();
+
+    int getLastThreads();
+
+    String getLastOutcome();
+
+    double getLastTotalMillis();
+
+    double getLastSeriesMillis();
+
+    double getLastSqrtMillis();
+
+    double getLastDivisionMillis();
+
+    double getLastRadixConversionMillis();
+
+    double getLastOutputMillis();
+
+    long getLastTerms();
+
+    double getLastTermsPerSecond();
+
+    double getLastDigitsPerSecond();
+
+    long getLastAllocatedBytes();
+
+    long getLastPeakOperandBytes();
+
+    /**
+     * Metriche dell'ultimo calcolo in formato JSON, null se nessun calcolo è concluso
+     */
+    String getLastRunJson();
+}
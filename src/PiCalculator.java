@@ -1,7 +1,19 @@
+import java.io.IOException;
 import java.math.BigDecimal;
-import java.math.MathContext;
+import java.math.BigInteger;
 import java.math.RoundingMode;
-import java.text.DecimalFormat;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Calcolatore Pi Greco con algoritmi matematicamente corretti
@@ -9,6 +21,11 @@ import java.text.DecimalFormat;
  */
 public class PiCalculator {
     
+    // Nomi degli algoritmi supportati
+    public static final String ALGORITHM_MACHIN = "Formula di Machin";
+    public static final String ALGORITHM_CHUDNOVSKY = "Algoritmo di Chudnovsky";
+    public static final String ALGORITHM_CROSS_VALIDATION = "Validazione Incrociata (Entrambi)";
+    
     // Costanti matematiche
     private static final BigDecimal ZERO = BigDecimal.ZERO;
     private static final BigDecimal ONE = BigDecimal.ONE;
@@ -18,294 +35,940 @@ public class PiCalculator {
     private static final BigDecimal SIXTEEN = new BigDecimal("16");
     private static final BigDecimal TWO_THIRTY_NINE = new BigDecimal("239");
     
-    // Valore di riferimento di Pi Greco per validazione
-    private static final String PI_REFERENCE = "3.1415926535897932384626433832795028841971693993751058209749445923078164062862089986280348253421170679";
+    // Numero massimo di cifre decimali accettate
+    public static final int MAX_DIGITS = 100_000_000;
+    
+    // Cifre mostrate in anteprima quando il risultato viene scritto in streaming
+    public static final int PREVIEW_DIGITS = 10_000;
+    
+    // Numero massimo di cifre decimali scritte in streaming con l'algoritmo di Chudnovsky su disco
+    public static final int MAX_STREAMED_DIGITS = 2_000_000_000;
+    
+    // Stima della memoria usata dal calcolo in memoria per ogni cifra decimale
+    private static final long IN_MEMORY_BYTES_PER_DIGIT = 8;
+    
+    // Fino a questa precisione la serie in virgola fissa è più veloce del binary splitting
+    private static final int FIXED_POINT_MAX_PRECISION = 1000;
+    
+    private static final double BITS_PER_DIGIT = Math.log(10) / Math.log(2);
+    
+    // Pool per la valutazione parallela delle serie (null = sequenziale)
+    private ForkJoinPool pool;
+    
+    // Formula usata dall'algoritmo di Machin
+    private volatile MachinFormula machinFormula = MachinFormula.MACHIN;
+    
+    // Archivio delle cifre già calcolate (null = nessun archivio)
+    private volatile DigitCache digitCache;
+    
+    // Checkpoint del binary splitting di Chudnovsky (null = nessun checkpoint)
+    private volatile Checkpoint checkpoint;
+    
+    // Riprende il calcolo dal checkpoint, se presente
+    private volatile boolean resumeFromCheckpoint;
+    
+    // Prodotti P, Q, T dell'ultimo calcolo di Chudnovsky in memoria, estesi dai calcoli successivi (null = nessuno)
+    private volatile SeriesState chudnovskySeries;
+    
+    // Conserva i prodotti parziali tra un calcolo e l'altro
+    private volatile boolean reuseSeries = true;
+    
+    // Memoria a disposizione del calcolo: oltre, l'algoritmo di Chudnovsky usa operandi su disco
+    private volatile long memoryBudget = Runtime.getRuntime().maxMemory() / 2;
+    
+    // Cartella dei file temporanei del calcolo su disco
+    private volatile Path workDirectory = Paths.get(System.getProperty("java.io.tmpdir"));
+    
+    // File a cui aggiungere le metriche di ogni calcolo, una riga JSON ciascuna (null = nessun file)
+    private volatile Path metricsFile;
+    
+    // Metriche dell'ultimo calcolo concluso
+    private volatile CalculationMetrics lastMetrics;
+    
+    /**
+     * Imposta la formula di tipo Machin usata dall'algoritmo di Machin e dalla validazione incrociata
+     */
+    public void setMachinFormula(MachinFormula machinFormula) {
+        if (machinFormula == null) {
+            throw new IllegalArgumentException("Formula non specificata");
+        }
+        this.machinFormula = machinFormula;
+    }
+    
+    public MachinFormula getMachinFormula() {
+        return machinFormula;
+    }
+    
+    /**
+     * Imposta l'archivio su disco delle cifre già calcolate; null lo disattiva
+     */
+    public void setDigitCache(DigitCache digitCache) {
+        this.digitCache = digitCache;
+    }
+    
+    public DigitCache getDigitCache() {
+        return digitCache;
+    }
+    
+    /**
+     * Imposta il file di checkpoint dell'algoritmo di Chudnovsky; null lo disattiva
+     * I prodotti parziali vengono salvati periodicamente e quando il calcolo viene fermato
+     */
+    public void setCheckpoint(Checkpoint checkpoint) {
+        this.checkpoint = checkpoint;
+    }
+    
+    public Checkpoint getCheckpoint() {
+        return checkpoint;
+    }
+    
+    /**
+     * Se attivo, il calcolo riprende dagli intervalli di termini già salvati nel checkpoint
+     */
+    public void setResumeFromCheckpoint(boolean resumeFromCheckpoint) {
+        this.resumeFromCheckpoint = resumeFromCheckpoint;
+    }
+    
+    public boolean isResumeFromCheckpoint() {
+        return resumeFromCheckpoint;
+    }
+    
+    /**
+     * Conserva i prodotti P, Q, T di ogni calcolo di Chudnovsky in memoria: un calcolo successivo
+     * con più cifre valuta solo i nuovi termini e ripete soltanto radice, divisione e conversione.
+     * Disattivarlo libera la memoria occupata dai prodotti
+     */
+    public void setReuseSeries(boolean reuseSeries) {
+        this.reuseSeries = reuseSeries;
+        if (!reuseSeries) {
+            chudnovskySeries = null;
+        }
+    }
+    
+    public boolean isReuseSeries() {
+        return reuseSeries;
+    }
+    
+    /**
+     * Imposta la memoria (in byte) a disposizione del calcolo
+     * Se la stima del calcolo in memoria la supera, l'algoritmo di Chudnovsky tiene gli operandi su disco
+     */
+    public void setMemoryBudget(long memoryBudget) {
+        if (memoryBudget < 1) {
+            throw new IllegalArgumentException("Budget di memoria non valido: " + memoryBudget);
+        }
+        this.memoryBudget = memoryBudget;
+    }
+    
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+    
+    /**
+     * Imposta la cartella dei file temporanei del calcolo su disco
+     */
+    public void setWorkDirectory(Path workDirectory) {
+        if (workDirectory == null) {
+            throw new IllegalArgumentException("Cartella di lavoro non specificata");
+        }
+        this.workDirectory = workDirectory;
+    }
+    
+    public Path getWorkDirectory() {
+        return workDirectory;
+    }
+    
+    /**
+     * Imposta il file a cui aggiungere, alla fine di ogni calcolo, le sue metriche in una riga JSON
+     * null disattiva la scrittura
+     */
+    public void setMetricsFile(Path metricsFile) {
+        this.metricsFile = metricsFile;
+    }
+    
+    public Path getMetricsFile() {
+        return metricsFile;
+    }
+    
+    /**
+     * Metriche dell'ultimo calcolo concluso, null se nessuno
+     */
+    public CalculationMetrics getLastMetrics() {
+        return lastMetrics;
+    }
+    
+    /**
+     * Sceglie tra valutazione sequenziale e parallela su tutti i core disponibili
+     */
+    public void setParallel(boolean parallel) {
+        setParallelism(parallel ? Runtime.getRuntime().availableProcessors() : 1);
+    }
+    
+    /**
+     * Imposta il numero di thread usati dal calcolo; 1 equivale alla modalità sequenziale
+     */
+    public synchronized void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelismo non valido: " + parallelism);
+        }
+        if (pool != null && pool.getParallelism() == parallelism) {
+            return;
+        }
+        if (pool != null) {
+            pool.shutdown();
+        }
+        pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+    }
+    
+    /**
+     * Numero di thread usati dal calcolo
+     */
+    public synchronized int getParallelism() {
+        return pool != null ? pool.getParallelism() : 1;
+    }
+    
+    /**
+     * Indica se il calcolo viene eseguito in parallelo
+     */
+    public boolean isParallel() {
+        return getParallelism() > 1;
+    }
     
     /**
      * Calcola Pi Greco con l'algoritmo specificato
      */
-    public void calculatePi(String algorithm, int targetDigits, PiGrecoCalculator.CalculationCallback callback) {
+    public void calculatePi(String algorithm, int targetDigits, CalculationListener callback) {
+        calculatePi(algorithm, targetDigits, callback, null);
+    }
+    
+    /**
+     * Calcola Pi Greco con l'algoritmo specificato e scrive le cifre in streaming nella destinazione
+     * Con una destinazione il risultato completo non viene mai costruito come stringa:
+     * onComplete riceve solo le prime PREVIEW_DIGITS cifre, e l'algoritmo di Chudnovsky
+     * accetta fino a MAX_STREAMED_DIGITS cifre
+     * L'avanzamento arriva al listener a frequenza fissa, al più 10 volte al secondo (ProgressPublisher)
+     */
+    public void calculatePi(String algorithm, int targetDigits, CalculationListener listener, DigitSink output) {
+        CalculationMetrics metrics = startMetrics(algorithm, targetDigits);
+        ProgressPublisher callback = new ProgressPublisher(listener);
         try {
+            checkDigits(targetDigits, output != null ? MAX_STREAMED_DIGITS : MAX_DIGITS);
+            
+            // Le cifre già archiviate vengono restituite senza alcun calcolo
+            DigitCache cache = digitCache;
+            if (cache != null && cache.cachedDigits() >= targetDigits) {
+                if (output != null) {
+                    cache.copyTo(metrics.timed(output), targetDigits);
+                }
+                callback.onProgress(1.0);
+                callback.onComplete(output != null ? preview(cache.read(Math.min(targetDigits, PREVIEW_DIGITS)), targetDigits)
+                                                   : cache.read(targetDigits));
+                return;
+            }
+            
+            // Oltre il budget di memoria gli operandi restano su disco
+            if (ALGORITHM_CHUDNOVSKY.equals(algorithm) && requiresOutOfCore(targetDigits)) {
+                calculatePiOutOfCore(targetDigits, callback, output, metrics);
+                return;
+            }
+            checkDigits(targetDigits, MAX_DIGITS);
+            
             BigDecimal result;
             
-            if ("Formula di Machin".equals(algorithm)) {
-                result = calculatePiMachinCorrected(targetDigits, callback);
-            } else if ("Algoritmo di Chudnovsky".equals(algorithm)) {
-                result = calculatePiChudnovskyCorrected(targetDigits, callback);
+            if (ALGORITHM_MACHIN.equals(algorithm)) {
+                result = calculatePiMachinCorrected(targetDigits, callback, metrics);
+            } else if (ALGORITHM_CHUDNOVSKY.equals(algorithm)) {
+                result = calculatePiChudnovskyCorrected(targetDigits, callback, metrics);
             } else {
                 throw new IllegalArgumentException("Algoritmo non supportato: " + algorithm);
             }
             
+            // Il risultato calcolato è già verificato dai controlli modulari del motore
             if (!callback.isStopped()) {
-                String formattedResult = formatPiToExactDigits(result, targetDigits);
-                
-                // Validazione: confronta con il valore di riferimento
-                String reference = PI_REFERENCE.substring(0, Math.min(PI_REFERENCE.length(), targetDigits + 2));
-                if (!formattedResult.startsWith(reference.substring(0, Math.min(reference.length(), formattedResult.length())))) {
-                    throw new RuntimeException("Errore di calcolo: il risultato non corrisponde al valore di Pi Greco");
+                if (output != null) {
+                    writeDigits(result, targetDigits, output, metrics);
+                    callback.onComplete(preview(formatPiToExactDigits(result, Math.min(targetDigits, PREVIEW_DIGITS)), targetDigits));
+                } else {
+                    long begin = System.nanoTime();
+                    String formattedResult = formatPiToExactDigits(result, targetDigits);
+                    metrics.endPhase(CalculationMetrics.Phase.RADIX_CONVERSION, begin);
+                    
+                    begin = System.nanoTime();
+                    storeInCache(formattedResult);
+                    callback.onComplete(formattedResult);
+                    metrics.endPhase(CalculationMetrics.Phase.OUTPUT, begin);
                 }
-                
-                callback.onComplete(formattedResult);
             }
             
         } catch (Exception e) {
+            metrics.finish(CalculationMetrics.OUTCOME_FAILED);
             callback.onError(e.getMessage());
+        } finally {
+            callback.close();
+            finishMetrics(metrics, callback);
+        }
+    }
+    
+    /**
+     * Calcola una costante definita da una serie ipergeometrica (e, ln 2, √2, ζ(3) o altre) con lo stesso
+     * binary splitting, checkpoint e scrittura in streaming dell'algoritmo di Chudnovsky, che calcola PI.
+     * L'archivio delle cifre contiene solo π e non viene usato per le altre costanti
+     */
+    public void calculateConstant(HypergeometricSeries constant, int targetDigits, CalculationListener listener, DigitSink output) {
+        if (constant == HypergeometricSeries.PI) {
+            calculatePi(ALGORITHM_CHUDNOVSKY, targetDigits, listener, output);
+            return;
+        }
+        CalculationMetrics metrics = startMetrics(constant.getName(), targetDigits);
+        ProgressPublisher callback = new ProgressPublisher(listener);
+        try {
+            checkDigits(targetDigits, MAX_DIGITS);
+            BigDecimal result = calculateSeriesConstant(constant, targetDigits, callback, metrics);
+            if (!callback.isStopped()) {
+                long begin = System.nanoTime();
+                if (output != null) {
+                    long outputBefore = metrics.getPhaseNanos(CalculationMetrics.Phase.OUTPUT);
+                    new RadixConverter(currentPool()).write(result, targetDigits, metrics.timed(output));
+                    metrics.endPhase(CalculationMetrics.Phase.RADIX_CONVERSION, begin, CalculationMetrics.Phase.OUTPUT, outputBefore);
+                    callback.onComplete(preview(formatPiToExactDigits(result, Math.min(targetDigits, PREVIEW_DIGITS)), targetDigits));
+                } else {
+                    String formattedResult = formatPiToExactDigits(result, targetDigits);
+                    metrics.endPhase(CalculationMetrics.Phase.RADIX_CONVERSION, begin);
+                    callback.onComplete(formattedResult);
+                }
+            }
+        } catch (Exception e) {
+            metrics.finish(CalculationMetrics.OUTCOME_FAILED);
+            callback.onError(e.getMessage());
+        } finally {
+            callback.close();
+            finishMetrics(metrics, callback);
         }
     }
     
     /**
      * Calcola Pi Greco con entrambi gli algoritmi e verifica che producano lo stesso risultato
-     * Metodo di validazione incrociata per garantire la correttezza matematica
+     * Metodo di validazione incrociata per garantire la correttezza matematica.
+     * I due algoritmi sono eseguiti in parallelo e le cifre confrontate a blocchi appena convertite:
+     * alla prima differenza, o al primo errore di uno dei due, entrambi vengono fermati
      */
-    public void calculatePiWithCrossValidation(int targetDigits, PiGrecoCalculator.CalculationCallback callback) {
+    public void calculatePiWithCrossValidation(int targetDigits, CalculationListener listener) {
+        CalculationMetrics metrics = startMetrics(ALGORITHM_CROSS_VALIDATION, targetDigits);
+        ProgressPublisher callback = new ProgressPublisher(listener);
         try {
+            checkDigits(targetDigits, MAX_DIGITS);
             callback.onProgress(0.05);
             
-            // Calcola con Formula di Machin
-            BigDecimal resultMachin = calculatePiMachinCorrected(targetDigits, callback);
-            if (callback.isStopped()) return;
-            
-            callback.onProgress(0.5);
-            
-            // Calcola con Algoritmo di Chudnovsky
-            BigDecimal resultChudnovsky = calculatePiChudnovskyCorrected(targetDigits, callback);
-            if (callback.isStopped()) return;
-            
-            callback.onProgress(0.9);
+            // Formula di Machin su un thread dedicato, algoritmo di Chudnovsky su questo
+            CrossCheck check = new CrossCheck(targetDigits);
+            AtomicBoolean aborted = new AtomicBoolean();
+            CrossValidationListener machin = new CrossValidationListener(callback, aborted);
+            CrossValidationListener chudnovsky = new CrossValidationListener(callback, aborted);
+            machin.pairWith(chudnovsky);
+            CompletableFuture<Void> machinDone = new CompletableFuture<>();
+            Thread machinThread = new Thread(() -> {
+                try {
+                    crossValidationSide(ALGORITHM_MACHIN, targetDigits, machin, check, metrics);
+                    machinDone.complete(null);
+                } catch (Throwable e) {
+                    machinDone.completeExceptionally(e);
+                }
+            }, "pi-cross-validation");
+            machinThread.start();
             
-            // Formatta entrambi i risultati
-            String formattedMachin = formatPiToExactDigits(resultMachin, targetDigits);
-            String formattedChudnovsky = formatPiToExactDigits(resultChudnovsky, targetDigits);
+            Throwable error = null;
+            try {
+                crossValidationSide(ALGORITHM_CHUDNOVSKY, targetDigits, chudnovsky, check, metrics);
+            } catch (IOException | RuntimeException e) {
+                error = e;
+            }
+            try {
+                machinDone.join();
+            } catch (CompletionException e) {
+                error = error != null ? error : e.getCause();
+            }
             
             // Verifica che entrambi gli algoritmi producano lo stesso risultato
-            if (!formattedMachin.equals(formattedChudnovsky)) {
+            if (check.hasMismatch()) {
                 throw new RuntimeException(String.format(
                     "ERRORE DI VALIDAZIONE: Gli algoritmi producono risultati diversi!\n" +
+                    "Prima cifra diversa alla posizione %d\n" +
                     "Machin: %s\n" +
-                    "Chudnovsky: %s", 
-                    formattedMachin, formattedChudnovsky));
+                    "Chudnovsky: %s",
+                    check.mismatchPosition(), check.excerpt(CrossCheck.MACHIN), check.excerpt(CrossCheck.CHUDNOVSKY)));
             }
-            
-            // Validazione finale con valore di riferimento
-            String reference = PI_REFERENCE.substring(0, Math.min(PI_REFERENCE.length(), targetDigits + 2));
-            if (!formattedMachin.startsWith(reference.substring(0, Math.min(reference.length(), formattedMachin.length())))) {
-                throw new RuntimeException("Errore di calcolo: il risultato non corrisponde al valore di Pi Greco");
+            if (error instanceof Error) {
+                throw (Error) error;
+            } else if (error != null) {
+                throw error instanceof Exception ? (Exception) error : new RuntimeException(error);
             }
+            if (callback.isStopped()) return;
             
             callback.onProgress(1.0);
+            long begin = System.nanoTime();
+            String formattedResult = check.value();
+            storeInCache(formattedResult);
             
             // Risultato validato con successo
-            String validatedResult = formattedMachin + "\n\n[VALIDATO: Entrambi gli algoritmi producono lo stesso risultato]";
+            String validatedResult = formattedResult + "\n\n[VALIDATO: Entrambi gli algoritmi producono lo stesso risultato]";
             callback.onComplete(validatedResult);
-            
+            metrics.endPhase(CalculationMetrics.Phase.OUTPUT, begin);
+        
         } catch (Exception e) {
+            metrics.finish(CalculationMetrics.OUTCOME_FAILED);
             callback.onError(e.getMessage());
+        } finally {
+            callback.close();
+            finishMetrics(metrics, callback);
         }
     }
     
+    /**
+     * Un algoritmo della validazione incrociata: calcolo e conversione delle cifre nel confronto
+     * Un errore ferma anche l'altro algoritmo
+     */
+    private void crossValidationSide(String algorithm, int targetDigits, CrossValidationListener listener,
+                                     CrossCheck check, CalculationMetrics metrics) throws IOException {
+        try {
+            boolean machin = ALGORITHM_MACHIN.equals(algorithm);
+            BigDecimal result = machin ? calculatePiMachinCorrected(targetDigits, listener, metrics)
+                                       : calculatePiChudnovskyCorrected(targetDigits, listener, metrics);
+            if (listener.isStopped()) {
+                return;
+            }
+            long begin = System.nanoTime();
+            new RadixConverter(currentPool()).write(result, targetDigits, check.sink(machin ? CrossCheck.MACHIN : CrossCheck.CHUDNOVSKY));
+            metrics.endPhase(CalculationMetrics.Phase.RADIX_CONVERSION, begin);
+        } catch (IOException | RuntimeException | Error e) {
+            listener.abort();
+            throw e;
+        }
+    }
+
     /**
      * Formula di Machin CORRETTA: π = 16*arctan(1/5) - 4*arctan(1/239)
-     * Implementazione ottimizzata per calcoli ad alta precisione
+     * Più in generale, per una formula di tipo Machin: π = 4 * Σ c_i * arctan(1/x_i).
+     * Ogni arcotangente è valutata con binary splitting su interi, in parallelo alle altre
      */
-    private BigDecimal calculatePiMachinCorrected(int targetDigits, PiGrecoCalculator.CalculationCallback callback) {
+    private BigDecimal calculatePiMachinCorrected(int targetDigits, CalculationListener callback) {
+        return calculatePiMachinCorrected(targetDigits, callback, new CalculationMetrics(ALGORITHM_MACHIN, targetDigits, getParallelism()));
+    }
+    
+    private BigDecimal calculatePiMachinCorrected(int targetDigits, CalculationListener callback, CalculationMetrics metrics) {
         // Precisione interna molto alta per garantire accuratezza anche con 100+ cifre
         int precision = Math.max(targetDigits + 200, 500);
-        MathContext mc = new MathContext(precision, RoundingMode.HALF_UP);
+        MachinFormula formula = machinFormula;
         
         callback.onProgress(0.1);
         
-        // Calcola arctan(1/5) con alta precisione
-        BigDecimal oneOverFive = ONE.divide(FIVE, mc);
-        BigDecimal arctan5 = calculateArctanSeriesOptimized(oneOverFive, mc, callback, 0.1, 0.4, targetDigits);
-        if (callback.isStopped()) return ZERO;
-        
-        callback.onProgress(0.5);
-        
-        // Calcola arctan(1/239) con alta precisione
-        BigDecimal oneOver239 = ONE.divide(TWO_THIRTY_NINE, mc);
-        BigDecimal arctan239 = calculateArctanSeriesOptimized(oneOver239, mc, callback, 0.5, 0.9, targetDigits);
-        if (callback.isStopped()) return ZERO;
+        // Calcola tutte le arcotangenti in virgola fissa: arctan(1/x_i) * 10^precision
+        long[] denominators = new long[formula.size()];
+        for (int i = 0; i < denominators.length; i++) {
+            denominators[i] = formula.denominator(i);
+        }
+        BigInteger[] arctans;
+        long begin = System.nanoTime();
+        try {
+            if (precision <= FIXED_POINT_MAX_PRECISION) {
+                arctans = calculateArctanSeriesOptimized(denominators, precision, callback, 0.1, 0.9);
+            } else {
+                ArctanBinarySplitting splitting = new ArctanBinarySplitting(callback, 0.1, 0.9, currentPool());
+                arctans = splitting.compute(denominators, precision);
+                metrics.recordOperandBits(splitting.getPeakOperandBits());
+            }
+        } catch (CancellationException e) {
+            return ZERO;
+        } finally {
+            metrics.endPhase(CalculationMetrics.Phase.SERIES, begin);
+        }
+        for (long x : denominators) {
+            metrics.addTerms(ArctanBinarySplitting.termsFor(x, precision));
+        }
         
-        // Formula di Machin: π = 16*arctan(1/5) - 4*arctan(1/239)
-        BigDecimal pi = SIXTEEN.multiply(arctan5, mc).subtract(FOUR.multiply(arctan239, mc), mc);
+        // π = 4 * Σ c_i * arctan(1/x_i)
+        BigInteger sum = BigInteger.ZERO;
+        for (int i = 0; i < arctans.length; i++) {
+            sum = sum.add(arctans[i].multiply(BigInteger.valueOf(formula.coefficient(i))));
+        }
+        metrics.recordOperandBits(sum.bitLength());
+        BigDecimal pi = new BigDecimal(sum.shiftLeft(2), precision);
         
         callback.onProgress(1.0);
         return pi;
     }
     
     /**
-     * Calcola la radice quadrata di un BigDecimal usando l'algoritmo di Newton-Raphson
+     * factorNumerator * √sqrtFactor * 10^digits della costante, troncato a meno di poche unità (426880 * √10005 per π)
+     * √r = r / √r, con l'inversa della radice dall'iterazione di Newton in virgola fissa binaria
      */
-    private BigDecimal sqrt(BigDecimal value, MathContext mc) {
-        if (value.equals(ZERO)) {
-            return ZERO;
+    private static BigInteger constantFactor(HypergeometricSeries constant, int digits) {
+        BigInteger scale = NttMultiplier.pow(BigInteger.valueOf(5), digits).shiftLeft(digits);
+        BigInteger factor = BigInteger.valueOf(constant.getFactorNumerator());
+        long radicand = constant.getSqrtFactor();
+        if (radicand == 1) {
+            return NttMultiplier.multiply(factor, scale);
         }
-        if (value.compareTo(ZERO) < 0) {
-            throw new ArithmeticException("Cannot calculate square root of negative number");
+        int bits = (int) Math.ceil(digits * BITS_PER_DIGIT) + 64;
+        BigInteger inverseRoot = NewtonIteration.inverseSqrt(radicand, bits);
+        return NttMultiplier.multiply(inverseRoot.multiply(factor.multiply(BigInteger.valueOf(radicand))), scale).shiftRight(bits);
+    }
+    
+    /**
+     * Algoritmo di Chudnovsky con binary splitting
+     * Formula: 1/π = 12 * Σ(k=0 to ∞) [(-1)^k * (6k)! * (545140134*k + 13591409)] / [(3k)! * (k!)^3 * 640320^(3k+3/2)]
+     * I prodotti P, Q, T sono calcolati con aritmetica intera esatta, poi π = 426880 * √10005 * Q / T
+     */
+    private BigDecimal calculatePiChudnovskyCorrected(int targetDigits, CalculationListener callback) {
+        return calculatePiChudnovskyCorrected(targetDigits, callback,
+                                              new CalculationMetrics(ALGORITHM_CHUDNOVSKY, targetDigits, getParallelism()));
+    }
+    
+    private BigDecimal calculatePiChudnovskyCorrected(int targetDigits, CalculationListener callback, CalculationMetrics metrics) {
+        int precision = Math.max(targetDigits + 300, 600);
+        
+        callback.onProgress(0.1);
+        
+        // Valuta la serie sui termini necessari con binary splitting, a partire da quelli già valutati se presenti
+        long terms = HypergeometricBinarySplitting.termsFor(precision);
+        HypergeometricBinarySplitting.Result series;
+        SeriesState previous = reuseSeries ? chudnovskySeries : null;
+        long computedFrom = previous != null && previous.terms <= terms ? previous.terms : 0;
+        Checkpoint currentCheckpoint = checkpoint;
+        long begin = System.nanoTime();
+        try {
+            HypergeometricBinarySplitting splitting =
+                    new HypergeometricBinarySplitting(HypergeometricSeries.PI, callback, 0.1, 0.9, currentPool());
+            if (computedFrom > 0) {
+                series = splitting.extend(previous.result, previous.terms, terms);
+            } else {
+                series = currentCheckpoint != null ? splitting.compute(terms, currentCheckpoint, resumeFromCheckpoint)
+                                                   : splitting.compute(terms);
+            }
+        } catch (CancellationException e) {
+            return ZERO;
+        } finally {
+            metrics.endPhase(CalculationMetrics.Phase.SERIES, begin);
         }
+        metrics.addTerms(terms - computedFrom);
+        keepSeries(terms, series);
+        metrics.recordOperandBits(Math.max(series.q.bitLength(), series.t.bitLength()));
+        
+        // π = 426880 * √10005 * Q / T: radice e divisione finali con l'iterazione di Newton, solo moltiplicazioni
+        begin = System.nanoTime();
+        BigInteger C = constantFactor(HypergeometricSeries.PI, precision);
+        metrics.endPhase(CalculationMetrics.Phase.SQRT, begin);
         
-        BigDecimal x = value;
-        BigDecimal previous;
+        begin = System.nanoTime();
+        BigInteger numerator = NttMultiplier.multiply(C, series.q);
+        ModularChecksum.verifyProduct(C, series.q, numerator);
+        metrics.recordOperandBits(numerator.bitLength());
         
-        // Algoritmo di Newton-Raphson: x_{n+1} = (x_n + value/x_n) / 2
-        do {
-            previous = x;
-            x = x.add(value.divide(x, mc), mc).divide(TWO, mc);
-        } while (x.subtract(previous).abs().compareTo(new BigDecimal("1E-" + (mc.getPrecision() - 10))) > 0);
+        BigInteger[] quotient = NewtonIteration.divideAndRemainder(numerator, series.t);
+        ModularChecksum.verifyDivision(numerator, series.t, quotient[0], quotient[1]);
+        metrics.endPhase(CalculationMetrics.Phase.DIVISION, begin);
+        BigDecimal pi = new BigDecimal(quotient[0], precision);
         
-        return x;
+        callback.onProgress(1.0);
+        return pi;
     }
     
     /**
-     * Algoritmo di Chudnovsky
-     * Implementazione dell'algoritmo reale di Chudnovsky per calcoli ad alta precisione
-     * Formula: 1/π = 12 * Σ(k=0 to ∞) [(-1)^k * (6k)! * (545140134*k + 13591409)] / [(3k)! * (k!)^3 * 640320^(3k+3/2)]
+     * Costante da una serie ipergeometrica: S = T / Q dal binary splitting, poi
+     * valore = factorNumerator * √sqrtFactor / factorDenominator * S (o diviso per S)
+     * con una sola radice e una sola divisione finali, come per Chudnovsky
      */
-    private BigDecimal calculatePiChudnovskyCorrected(int targetDigits, PiGrecoCalculator.CalculationCallback callback) {
+    private BigDecimal calculateSeriesConstant(HypergeometricSeries constant, int targetDigits,
+                                               CalculationListener callback, CalculationMetrics metrics) {
         int precision = Math.max(targetDigits + 300, 600);
-        MathContext mc = new MathContext(precision, RoundingMode.HALF_UP);
         
         callback.onProgress(0.1);
         
-        BigDecimal sum = ZERO;
-        BigDecimal C = new BigDecimal("426880").multiply(sqrt(new BigDecimal("10005"), mc), mc);
-        
-        // Costanti per l'algoritmo di Chudnovsky
-        BigDecimal A = new BigDecimal("13591409");
-        BigDecimal B = new BigDecimal("545140134");
-        BigDecimal K = new BigDecimal("640320");
-        
-        // Numero di iterazioni basato sulla precisione richiesta
-        int maxIterations = (targetDigits / 14) + 5; // Chudnovsky converge molto rapidamente
+        long terms = constant.termsFor(precision);
+        HypergeometricBinarySplitting.Result series;
+        Checkpoint currentCheckpoint = checkpoint;
+        long begin = System.nanoTime();
+        try {
+            HypergeometricBinarySplitting splitting = new HypergeometricBinarySplitting(constant, callback, 0.1, 0.9, currentPool());
+            series = currentCheckpoint != null ? splitting.compute(terms, currentCheckpoint, resumeFromCheckpoint)
+                                               : splitting.compute(terms);
+        } catch (CancellationException e) {
+            return ZERO;
+        } finally {
+            metrics.endPhase(CalculationMetrics.Phase.SERIES, begin);
+        }
+        metrics.addTerms(terms);
+        metrics.recordOperandBits(Math.max(series.q.bitLength(), series.t.bitLength()));
         
-        BigDecimal factorial6k = ONE;
-        BigDecimal factorial3k = ONE;
-        BigDecimal factorialK = ONE;
-        BigDecimal powerK = ONE;
+        begin = System.nanoTime();
+        BigInteger factor = constantFactor(constant, precision);
+        metrics.endPhase(CalculationMetrics.Phase.SQRT, begin);
         
-        for (int k = 0; k < maxIterations; k++) {
-            if (callback.isStopped()) return ZERO;
-            
-            // Aggiorna progresso
-            double progress = 0.1 + 0.8 * ((double) k / maxIterations);
-            callback.onProgress(progress);
-            
-            // Calcola il numeratore: (-1)^k * (6k)! * (A + B*k)
-            BigDecimal numerator = factorial6k.multiply(A.add(B.multiply(new BigDecimal(k), mc), mc), mc);
-            if (k % 2 == 1) {
-                numerator = numerator.negate();
-            }
-            
-            // Calcola il denominatore: (3k)! * (k!)^3 * 640320^(3k)
-            BigDecimal denominator = factorial3k.multiply(factorialK.pow(3, mc), mc).multiply(powerK, mc);
-            
-            // Aggiungi il termine alla somma
-            BigDecimal term = numerator.divide(denominator, mc);
-            sum = sum.add(term, mc);
-            
-            // Aggiorna i fattoriali e le potenze per la prossima iterazione
-            if (k < maxIterations - 1) {
-                // (6k+6)! = (6k)! * (6k+1) * (6k+2) * (6k+3) * (6k+4) * (6k+5) * (6k+6)
-                for (int i = 1; i <= 6; i++) {
-                    factorial6k = factorial6k.multiply(new BigDecimal(6 * k + i), mc);
-                }
-                
-                // (3k+3)! = (3k)! * (3k+1) * (3k+2) * (3k+3)
-                for (int i = 1; i <= 3; i++) {
-                    factorial3k = factorial3k.multiply(new BigDecimal(3 * k + i), mc);
-                }
-                
-                // (k+1)! = k! * (k+1)
-                factorialK = factorialK.multiply(new BigDecimal(k + 1), mc);
-                
-                // 640320^(3k+3) = 640320^(3k) * 640320^3
-                powerK = powerK.multiply(K.pow(3, mc), mc);
-            }
-            
-            // Controlla convergenza
-            if (term.abs().compareTo(new BigDecimal("1E-" + (targetDigits + 100))) < 0) {
-                break;
-            }
+        begin = System.nanoTime();
+        BigInteger dividend = constant.isReciprocal() ? series.q : series.t;
+        BigInteger divisor = constant.isReciprocal() ? series.t : series.q;
+        divisor = divisor.multiply(BigInteger.valueOf(constant.getFactorDenominator()));
+        if (divisor.signum() < 0) {
+            dividend = dividend.negate();
+            divisor = divisor.negate();
         }
+        BigInteger numerator = NttMultiplier.multiply(factor, dividend);
+        ModularChecksum.verifyProduct(factor, dividend, numerator);
+        if (numerator.signum() < 0) {
+            throw new IllegalArgumentException("Costante negativa non supportata: " + constant.getName());
+        }
+        metrics.recordOperandBits(numerator.bitLength());
         
-        // π = C / sum
-        BigDecimal pi = C.divide(sum, mc);
+        BigInteger[] quotient = NewtonIteration.divideAndRemainder(numerator, divisor);
+        ModularChecksum.verifyDivision(numerator, divisor, quotient[0], quotient[1]);
+        metrics.endPhase(CalculationMetrics.Phase.DIVISION, begin);
+        BigDecimal value = new BigDecimal(quotient[0], precision);
         
         callback.onProgress(1.0);
-        return pi;
+        return value;
     }
     
-
+    /**
+     * Conserva i prodotti della serie su [0, terms) se coprono più termini di quelli conservati
+     */
+    private synchronized void keepSeries(long terms, HypergeometricBinarySplitting.Result series) {
+        SeriesState current = chudnovskySeries;
+        if (reuseSeries && (current == null || current.terms < terms)) {
+            chudnovskySeries = new SeriesState(terms, series);
+        }
+    }
     
     /**
-     * Calcola arctan(x) usando la serie di Taylor ottimizzata
-     * arctan(x) = x - x^3/3 + x^5/5 - x^7/7 + ...
-     * Versione ottimizzata per calcoli ad alta precisione
+     * Algoritmo di Chudnovsky con operandi su disco: le cifre vengono scritte direttamente
+     * nella destinazione e nell'archivio; senza destinazione sono raccolte per onComplete
      */
-    private BigDecimal calculateArctanSeriesOptimized(BigDecimal x, MathContext mc, 
-                                                     PiGrecoCalculator.CalculationCallback callback,
-                                                     double progressStart, double progressEnd, int targetDigits) {
-        BigDecimal result = ZERO;
-        BigDecimal xSquared = x.multiply(x, mc);
-        BigDecimal term = x;
+    private void calculatePiOutOfCore(int targetDigits, CalculationListener callback, DigitSink output,
+                                      CalculationMetrics metrics) throws IOException {
+        PreviewSink preview = new PreviewSink(output != null ? Math.min(targetDigits, PREVIEW_DIGITS) : targetDigits);
+        List<DigitSink> sinks = new ArrayList<>();
+        sinks.add(preview);
+        if (output != null) {
+            sinks.add(output);
+        }
+        DigitCache cache = digitCache;
+        if (cache != null) {
+            sinks.add(cache.openWriter());
+        }
         
-        // Aumenta il numero di termini per garantire convergenza con più cifre
-        int maxTerms = Math.max(mc.getPrecision() + 100, targetDigits * 10);
-        BigDecimal convergenceThreshold = new BigDecimal("1E-" + (targetDigits + 50));
+        callback.onProgress(0.1);
+        try {
+            new OutOfCoreChudnovsky(callback, currentPool(), workDirectory, memoryBudget, metrics)
+                    .write(targetDigits, DigitSink.tee(sinks.toArray(new DigitSink[0])));
+        } catch (CancellationException e) {
+            return;
+        }
+        callback.onProgress(1.0);
+        callback.onComplete(output != null ? preview(preview.value(), targetDigits) : preview.value());
+    }
+    
+    /**
+     * Calcola arctan(1/x_i) * 10^precision con la serie di Taylor in virgola fissa
+     * Gli stessi array di limb vengono riusati per tutte le arcotangenti
+     */
+    private BigInteger[] calculateArctanSeriesOptimized(long[] denominators, int precision,
+                                                        CalculationListener callback,
+                                                        double progressStart, double progressEnd) {
+        FixedPointArctan kernel = new FixedPointArctan(precision);
+        BigInteger[] results = new BigInteger[denominators.length];
+        double step = (progressEnd - progressStart) / denominators.length;
+        for (int i = 0; i < denominators.length; i++) {
+            double start = progressStart + step * i;
+            results[i] = kernel.arctan(denominators[i], callback, start, start + step);
+        }
+        return results;
+    }
+    
+    private synchronized ForkJoinPool currentPool() {
+        return pool;
+    }
+    
+    /**
+     * Formatta Pi Greco al numero esatto di cifre decimali richieste
+     * Le cifre vengono troncate, non arrotondate: sono esattamente le prime cifre del valore calcolato
+     */
+    private String formatPiToExactDigits(BigDecimal pi, int targetDigits) {
+        return pi.setScale(targetDigits, RoundingMode.DOWN).toPlainString();
+    }
+    
+    /**
+     * Scrive le cifre del risultato nella destinazione e nell'archivio
+     */
+    private void writeDigits(BigDecimal pi, int targetDigits, DigitSink output, CalculationMetrics metrics) throws IOException {
+        DigitCache cache = digitCache;
+        DigitSink sink = cache != null ? DigitSink.tee(output, cache.openWriter()) : output;
+        long begin = System.nanoTime();
+        long outputBefore = metrics.getPhaseNanos(CalculationMetrics.Phase.OUTPUT);
+        new RadixConverter(currentPool()).write(pi, targetDigits, metrics.timed(sink));
+        metrics.endPhase(CalculationMetrics.Phase.RADIX_CONVERSION, begin, CalculationMetrics.Phase.OUTPUT, outputBefore);
+    }
+    
+    private CalculationMetrics startMetrics(String algorithm, int targetDigits) {
+        PerformanceMonitor.getInstance().started();
+        return new CalculationMetrics(algorithm, targetDigits, getParallelism());
+    }
+    
+    /**
+     * Chiude le metriche del calcolo, le pubblica via JMX e le aggiunge al file delle metriche
+     */
+    private void finishMetrics(CalculationMetrics metrics, CalculationListener callback) {
+        metrics.finish(callback.isStopped() ? CalculationMetrics.OUTCOME_STOPPED : CalculationMetrics.OUTCOME_COMPLETED);
+        lastMetrics = metrics;
+        PerformanceMonitor.getInstance().finished(metrics);
         
-        for (int n = 0; n < maxTerms; n++) {
-            if (callback.isStopped()) return ZERO;
-            
-            // Aggiorna progresso ogni 100 iterazioni
-            if (n % 100 == 0) {
-                double progress = progressStart + (progressEnd - progressStart) * ((double) n / maxTerms);
-                callback.onProgress(progress);
-            }
-            
-            // Aggiungi il termine corrente con segno alternato
-            if (n % 2 == 0) {
-                result = result.add(term, mc);
-            } else {
-                result = result.subtract(term, mc);
+        Path file = metricsFile;
+        if (file == null) {
+            return;
+        }
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
             }
-            
-            // Calcola il prossimo termine
-            term = term.multiply(xSquared, mc);
-            BigDecimal denominator = new BigDecimal(2 * n + 3);
-            term = term.divide(denominator, mc);
-            
-            // Controlla convergenza migliorata
-            if (term.abs().compareTo(convergenceThreshold) < 0) {
-                break;
+            Files.write(file, (metrics.toJson() + "\n").getBytes(StandardCharsets.UTF_8),
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            // Le metriche non invalidano il calcolo
+        }
+    }
+    
+    private static String preview(String value, int targetDigits) {
+        return targetDigits > PREVIEW_DIGITS ? value + "..." : value;
+    }
+    
+    /**
+     * Salva il risultato nell'archivio; un errore di scrittura non invalida il calcolo
+     */
+    private void storeInCache(String formattedResult) {
+        DigitCache cache = digitCache;
+        if (cache == null) {
+            return;
+        }
+        try {
+            cache.store(formattedResult);
+        } catch (IOException e) {
+            // L'archivio è solo un'ottimizzazione: il risultato resta valido
+        }
+    }
+    
+    private static void checkDigits(int targetDigits, int maxDigits) {
+        if (targetDigits < 1 || targetDigits > maxDigits) {
+            throw new IllegalArgumentException("Numero di cifre non valido: " + targetDigits + " (1-" + maxDigits + ")");
+        }
+    }
+    
+    private boolean requiresOutOfCore(int targetDigits) {
+        return targetDigits > MAX_DIGITS || targetDigits * IN_MEMORY_BYTES_PER_DIGIT > memoryBudget;
+    }
+    
+    /**
+     * Prodotti P, Q, T della serie di Chudnovsky sui termini [0, terms)
+     */
+    private static final class SeriesState {
+        final long terms;
+        final HypergeometricBinarySplitting.Result result;
+        
+        SeriesState(long terms, HypergeometricBinarySplitting.Result result) {
+            this.terms = terms;
+            this.result = result;
+        }
+    }
+    
+    /**
+     * Raccoglie in memoria solo le prime cifre ricevute
+     */
+    private static final class PreviewSink implements DigitSink {
+        private final int limit;
+        private final StringBuilder value = new StringBuilder();
+        private int collected;
+        
+        PreviewSink(int limit) {
+            this.limit = limit;
+        }
+        
+        @Override
+        public void begin(String integerPart, long digits) {
+            value.append(integerPart).append('.');
+        }
+        
+        @Override
+        public void write(byte[] digits, int offset, int length) {
+            for (int i = offset; i < offset + length && collected < limit; i++, collected++) {
+                value.append((char) digits[i]);
             }
         }
         
-        return result;
+        @Override
+        public void end() {
+        }
+        
+        String value() {
+            return value.toString();
+        }
     }
     
     /**
-     * Formatta Pi Greco al numero esatto di cifre decimali richieste
-     * GARANTISCE la formattazione corretta
+     * Listener di uno dei due algoritmi della validazione incrociata
+     * L'avanzamento inoltrato è la media dei due; il calcolo si ferma se lo chiede il listener
+     * del chiamante o se l'altro algoritmo è fallito
      */
-    private String formatPiToExactDigits(BigDecimal pi, int targetDigits) {
-        // Usa il valore di riferimento per garantire la correttezza
-        String reference = PI_REFERENCE;
+    private static final class CrossValidationListener implements CalculationListener {
+        private final CalculationListener callback;
+        private final AtomicBoolean aborted;
+        private volatile double progress;
+        private CrossValidationListener other;
+        
+        CrossValidationListener(CalculationListener callback, AtomicBoolean aborted) {
+            this.callback = callback;
+            this.aborted = aborted;
+        }
+        
+        void pairWith(CrossValidationListener other) {
+            this.other = other;
+            other.other = this;
+        }
+        
+        void abort() {
+            aborted.set(true);
+        }
+        
+        @Override
+        public void onProgress(double progress) {
+            this.progress = progress;
+            callback.onProgress(0.05 + 0.85 * (progress + other.progress) / 2);
+        }
         
-        if (targetDigits + 2 <= reference.length()) {
-            // Se abbiamo il valore di riferimento, usalo per garantire correttezza
-            return reference.substring(0, targetDigits + 2);
+        @Override
+        public void onDigitsUpdate(String piValue) {
         }
         
-        // Altrimenti, formatta il valore calcolato
-        MathContext roundingContext = new MathContext(targetDigits + 1, RoundingMode.HALF_UP);
-        BigDecimal rounded = pi.round(roundingContext);
+        @Override
+        public void onComplete(String finalValue) {
+        }
+        
+        @Override
+        public void onError(String error) {
+        }
+        
+        @Override
+        public boolean isStopped() {
+            return aborted.get() || callback.isStopped();
+        }
+    }
+    
+    /**
+     * Confronto a blocchi delle cifre dei due algoritmi della validazione incrociata
+     * Le cifre scritte per prime da uno dei due vengono conservate, quelle dell'altro confrontate
+     * appena arrivano: alla prima differenza la scrittura di entrambi si interrompe
+     */
+    private static final class CrossCheck {
+        static final int MACHIN = 0;
+        static final int CHUDNOVSKY = 1;
+        
+        // Cifre attorno alla differenza riportate nel messaggio di errore
+        private static final int EXCERPT_DIGITS = 20;
         
-        StringBuilder pattern = new StringBuilder("0.");
-        for (int i = 0; i < targetDigits; i++) {
-            pattern.append("0");
+        private final byte[] digits;
+        private final long[] written = new long[2];
+        private final String[] integerParts = new String[2];
+        private final String[] excerpts = new String[2];
+        private long mismatch = -1;
+        
+        CrossCheck(int count) {
+            digits = new byte[count];
+        }
+        
+        DigitSink sink(int side) {
+            return new DigitSink() {
+                @Override
+                public void begin(String integerPart, long count) throws IOException {
+                    CrossCheck.this.begin(side, integerPart);
+                }
+                
+                @Override
+                public void write(byte[] block, int offset, int length) throws IOException {
+                    CrossCheck.this.write(side, block, offset, length);
+                }
+                
+                @Override
+                public void end() {
+                }
+            };
         }
         
-        DecimalFormat formatter = new DecimalFormat(pattern.toString());
-        return formatter.format(rounded);
+        synchronized void begin(int side, String integerPart) throws IOException {
+            integerParts[side] = integerPart;
+            String other = integerParts[1 - side];
+            if (other != null && !other.equals(integerPart)) {
+                mismatch = 0;
+                excerpts[side] = integerPart;
+                excerpts[1 - side] = other;
+                throw mismatchException();
+            }
+        }
+        
+        synchronized void write(int side, byte[] block, int offset, int length) throws IOException {
+            if (mismatch >= 0) {
+                throw mismatchException();
+            }
+            int start = (int) written[side];
+            int compared = (int) Math.max(0, Math.min(length, written[1 - side] - start));
+            for (int i = 0; i < compared; i++) {
+                if (digits[start + i] != block[offset + i]) {
+                    recordMismatch(side, start + i, block, offset, start, length);
+                    throw mismatchException();
+                }
+            }
+            System.arraycopy(block, offset + compared, digits, start + compared, length - compared);
+            written[side] += length;
+        }
+        
+        /**
+         * Prima differenza all'indice index: estratti delle cifre dei due algoritmi attorno a essa
+         * Prima di start le cifre dei due coincidono, da start in poi quelle di side sono nel blocco
+         */
+        private void recordMismatch(int side, int index, byte[] block, int offset, int start, int length) {
+            mismatch = index + 1;
+            int from = Math.max(0, index - EXCERPT_DIGITS);
+            StringBuilder own = new StringBuilder(from > 0 ? "..." : integerParts[side] + ".");
+            for (int i = from; i < Math.min(start + length, index + EXCERPT_DIGITS); i++) {
+                own.append((char) (i < start ? digits[i] : block[offset + i - start]));
+            }
+            StringBuilder other = new StringBuilder(from > 0 ? "..." : integerParts[1 - side] + ".");
+            for (int i = from; i < Math.min(written[1 - side], index + EXCERPT_DIGITS); i++) {
+                other.append((char) digits[i]);
+            }
+            excerpts[side] = own.append("...").toString();
+            excerpts[1 - side] = other.append("...").toString();
+        }
+        
+        private IOException mismatchException() {
+            return new IOException("Cifre diverse alla posizione " + mismatch);
+        }
+        
+        synchronized boolean hasMismatch() {
+            return mismatch >= 0;
+        }
+        
+        /**
+         * Posizione della prima cifra decimale diversa (da 1; 0 se differisce la parte intera)
+         */
+        synchronized long mismatchPosition() {
+            return mismatch;
+        }
+        
+        synchronized String excerpt(int side) {
+            return excerpts[side];
+        }
+        
+        /**
+         * Risultato concorde dei due algoritmi, nel formato "3.1415..."
+         */
+        synchronized String value() {
+            return integerParts[MACHIN] + "." + new String(digits, StandardCharsets.US_ASCII);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,381 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+
+/**
+ * Esecuzione del calcolo da riga di comando, senza JavaFX
+ * Pensata per job batch su server e container senza display
+ *
+ * Uso: java PiCalculatorCli --digits N [--algorithm machin|chudnovsky|cross] [--output file] [--threads N] [--cache file]
+ *                           [--constant pi|e|ln2|sqrt2|zeta3]
+ *                           [--digits-per-line N] [--group N] [--formula machin|gauss|takano|stormer]
+ *                           [--checkpoint file [--resume]] [--memory N[K|M|G]] [--work-dir dir] [--metrics file]
+ *     java PiCalculatorCli --serve PORT [--output file] [--digits N] [opzioni di calcolo]
+ */
+public class PiCalculatorCli {
+
+    private static final int EXIT_OK = 0;
+    private static final int EXIT_ERROR = 1;
+    private static final int EXIT_USAGE = 2;
+
+    // Attesa massima del salvataggio del checkpoint all'interruzione del processo
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 300;
+
+    // File delle cifre del servizio HTTP, se non indicato con --output
+    private static final String DEFAULT_SERVED_FILE = "pi.txt";
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    static int run(String[] args) {
+        int digits = -1;
+        String algorithm = PiCalculator.ALGORITHM_CHUDNOVSKY;
+        HypergeometricSeries constant = HypergeometricSeries.PI;
+        Path output = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        Path cache = null;
+        int digitsPerLine = 0;
+        int groupSize = 0;
+        MachinFormula formula = MachinFormula.MACHIN;
+        Path checkpoint = null;
+        boolean resume = false;
+        long memoryBudget = 0;
+        Path workDirectory = null;
+        Path metrics = null;
+        int port = -1;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                switch (arg) {
+                    case "-d":
+                    case "--digits":
+                        digits = Integer.parseInt(value(args, ++i, arg));
+                        break;
+                    case "-a":
+                    case "--algorithm":
+                        algorithm = algorithmName(value(args, ++i, arg));
+                        break;
+                    case "--constant":
+                        constant = HypergeometricSeries.byName(value(args, ++i, arg));
+                        break;
+                    case "-o":
+                    case "--output":
+                        output = Paths.get(value(args, ++i, arg));
+                        break;
+                    case "-t":
+                    case "--threads":
+                        threads = Integer.parseInt(value(args, ++i, arg));
+                        break;
+                    case "-c":
+                    case "--cache":
+                        cache = Paths.get(value(args, ++i, arg));
+                        break;
+                    case "--digits-per-line":
+                        digitsPerLine = Integer.parseInt(value(args, ++i, arg));
+                        break;
+                    case "--group":
+                        groupSize = Integer.parseInt(value(args, ++i, arg));
+                        break;
+                    case "-f":
+                    case "--formula":
+                        formula = MachinFormula.byName(value(args, ++i, arg));
+                        break;
+                    case "--checkpoint":
+                        checkpoint = Paths.get(value(args, ++i, arg));
+                        break;
+                    case "--resume":
+                        resume = true;
+                        break;
+                    case "--memory":
+                        memoryBudget = parseSize(value(args, ++i, arg));
+                        break;
+                    case "--work-dir":
+                        workDirectory = Paths.get(value(args, ++i, arg));
+                        break;
+                    case "--serve":
+                        port = Integer.parseInt(value(args, ++i, arg));
+                        break;
+                    case "--metrics":
+                        metrics = Paths.get(value(args, ++i, arg));
+                        break;
+                    case "-h":
+                    case "--help":
+                        printUsage();
+                        return EXIT_OK;
+                    default:
+                        throw new IllegalArgumentException("Opzione sconosciuta: " + arg);
+                }
+            }
+            if (digits < 1 && port < 0) {
+                throw new IllegalArgumentException("Specificare il numero di cifre con --digits");
+            }
+            if (threads < 1) {
+                throw new IllegalArgumentException("Numero di thread non valido: " + threads);
+            }
+            if (digitsPerLine < 0 || groupSize < 0) {
+                throw new IllegalArgumentException("Formato di output non valido");
+            }
+            if (resume && checkpoint == null) {
+                throw new IllegalArgumentException("--resume richiede --checkpoint");
+            }
+            if (port > 65535) {
+                throw new IllegalArgumentException("Porta non valida: " + port);
+            }
+            if (port >= 0 && constant != HypergeometricSeries.PI) {
+                throw new IllegalArgumentException("Il servizio HTTP fornisce solo le cifre di π");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("Errore: " + e.getMessage());
+            printUsage();
+            return EXIT_USAGE;
+        }
+
+        PiCalculator calculator = new PiCalculator();
+        calculator.setParallelism(threads);
+        calculator.setMachinFormula(formula);
+        if (cache != null) {
+            calculator.setDigitCache(new DigitCache(cache));
+        }
+        if (memoryBudget > 0) {
+            calculator.setMemoryBudget(memoryBudget);
+        }
+        if (workDirectory != null) {
+            calculator.setWorkDirectory(workDirectory);
+        }
+        if (checkpoint != null) {
+            calculator.setCheckpoint(new Checkpoint(checkpoint));
+            calculator.setResumeFromCheckpoint(resume);
+        }
+        calculator.setMetricsFile(metrics);
+        try {
+            PerformanceMonitor.register();
+        } catch (JMException e) {
+            // Il monitoraggio JMX è facoltativo
+        }
+        if (port >= 0) {
+            return serve(calculator, port, output != null ? output : Paths.get(DEFAULT_SERVED_FILE), digits);
+        }
+        ConsoleListener listener = new ConsoleListener();
+
+        // All'interruzione il calcolo viene fermato e si attende il salvataggio del checkpoint
+        CountDownLatch finished = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            listener.stop();
+            try {
+                finished.await(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+
+        if (constant != HypergeometricSeries.PI) {
+            System.err.println(String.format("Costante: %s - Cifre: %d - Thread: %d", constant, digits, threads));
+        } else {
+            System.err.println(String.format("Algoritmo: %s - Cifre: %d - Thread: %d", algorithm, digits, threads));
+        }
+
+        // Le cifre vengono scritte in streaming durante la conversione del risultato
+        long startTime = System.nanoTime();
+        try (DigitWriter writer = output != null ? DigitWriter.open(output, digitsPerLine, groupSize)
+                                                 : new DigitWriter(System.out, digitsPerLine, groupSize)) {
+            if (constant != HypergeometricSeries.PI) {
+                calculator.calculateConstant(constant, digits, listener, writer);
+            } else if (PiCalculator.ALGORITHM_CROSS_VALIDATION.equals(algorithm)) {
+                calculator.calculatePiWithCrossValidation(digits, listener);
+                if (listener.result != null) {
+                    // Il valore è seguito dall'esito della validazione
+                    int end = listener.result.indexOf('\n');
+                    writer.writeValue(end < 0 ? listener.result : listener.result.substring(0, end));
+                }
+            } else {
+                calculator.calculatePi(algorithm, digits, listener, writer);
+            }
+            if (output == null) {
+                System.out.flush();
+            }
+        } catch (IOException e) {
+            System.err.println("Errore di scrittura: " + e.getMessage());
+            return EXIT_ERROR;
+        } finally {
+            finished.countDown();
+        }
+        long calculationTime = System.nanoTime() - startTime;
+
+        if (listener.error != null) {
+            System.err.println("Errore: " + listener.error);
+            return EXIT_ERROR;
+        }
+        if (listener.result == null) {
+            System.err.println(checkpoint != null && Files.isRegularFile(checkpoint)
+                               ? "Calcolo interrotto, checkpoint salvato in: " + checkpoint
+                               : "Calcolo interrotto");
+            return EXIT_ERROR;
+        }
+
+        System.err.println(String.format("Calcolo e scrittura: %d ms", calculationTime / 1_000_000));
+        printPhases(calculator.getLastMetrics());
+        return EXIT_OK;
+    }
+
+    /**
+     * Durata delle fasi e velocità del calcolo, su standard error
+     */
+    private static void printPhases(CalculationMetrics metrics) {
+        if (metrics == null) {
+            return;
+        }
+        StringBuilder phases = new StringBuilder("Fasi:");
+        for (CalculationMetrics.Phase phase : CalculationMetrics.Phase.values()) {
+            phases.append(String.format(" %s %d ms", phase.key(), metrics.getPhaseNanos(phase) / 1_000_000));
+        }
+        System.err.println(phases);
+        System.err.println(String.format("Termini: %d (%.0f/s) - Cifre al secondo: %.0f - Operando massimo: %d byte",
+                                         metrics.getTerms(), metrics.getTermsPerSecond(),
+                                         metrics.getDigitsPerSecond(), metrics.getPeakOperandBytes()));
+    }
+
+    /**
+     * Servizio HTTP delle cifre fino all'interruzione del processo
+     * Con digits il file delle cifre viene esteso prima di accettare richieste
+     */
+    private static int serve(PiCalculator calculator, int port, Path file, int digits) {
+        CountDownLatch stopped = new CountDownLatch(1);
+        try (PiDigitServer server = new PiDigitServer(calculator, file, new InetSocketAddress(port))) {
+            if (digits > 0) {
+                System.err.println(String.format("Calcolo delle prime %d cifre...", digits));
+                server.awaitDigits(digits);
+            }
+            server.start();
+            System.err.println(String.format("Cifre disponibili: %d - Servizio su http://localhost:%d%s?from=1&to=1000",
+                                             server.getAvailableDigits(), server.getPort(), PiDigitServer.PATH));
+            Runtime.getRuntime().addShutdownHook(new Thread(stopped::countDown));
+            stopped.await();
+            return EXIT_OK;
+        } catch (IOException e) {
+            System.err.println("Errore del servizio: " + e.getMessage());
+            return EXIT_ERROR;
+        } catch (ExecutionException e) {
+            System.err.println("Errore: " + e.getCause().getMessage());
+            return EXIT_ERROR;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return EXIT_ERROR;
+        }
+    }
+
+    private static String value(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Valore mancante per " + option);
+        }
+        return args[index];
+    }
+
+    /**
+     * Dimensione in byte, con suffisso opzionale K, M o G
+     */
+    private static long parseSize(String value) {
+        String number = value.toUpperCase();
+        int shift = 0;
+        if (number.endsWith("K")) {
+            shift = 10;
+        } else if (number.endsWith("M")) {
+            shift = 20;
+        } else if (number.endsWith("G")) {
+            shift = 30;
+        }
+        if (shift > 0) {
+            number = number.substring(0, number.length() - 1);
+        }
+        long size = Long.parseLong(number) << shift;
+        if (size < 1) {
+            throw new IllegalArgumentException("Dimensione non valida: " + value);
+        }
+        return size;
+    }
+
+    /**
+     * Converte il nome breve dell'algoritmo nel nome usato da PiCalculator
+     */
+    private static String algorithmName(String name) {
+        switch (name.toLowerCase()) {
+            case "machin":
+                return PiCalculator.ALGORITHM_MACHIN;
+            case "chudnovsky":
+                return PiCalculator.ALGORITHM_CHUDNOVSKY;
+            case "cross":
+                return PiCalculator.ALGORITHM_CROSS_VALIDATION;
+            default:
+                throw new IllegalArgumentException("Algoritmo non supportato: " + name);
+        }
+    }
+
+    private static void printUsage() {
+        System.err.println("Uso: java PiCalculatorCli --digits N [opzioni]");
+        System.err.println("  -d, --digits N        cifre decimali da calcolare");
+        System.err.println("  -a, --algorithm NOME  machin, chudnovsky (predefinito) o cross");
+        System.err.println("  --constant NOME       costante: pi (predefinita), e, ln2, sqrt2 o zeta3 (serie ipergeometriche)");
+        System.err.println("  -o, --output FILE     file di destinazione (predefinito: standard output)");
+        System.err.println("  -t, --threads N       thread di calcolo (predefinito: numero di core)");
+        System.err.println("  -c, --cache FILE      archivio delle cifre già calcolate");
+        System.err.println("  -f, --formula NOME    formula di tipo Machin: machin (predefinita), gauss, takano o stormer");
+        System.err.println("  --checkpoint FILE     salva periodicamente lo stato del calcolo (chudnovsky)");
+        System.err.println("  --resume              riprende il calcolo dal checkpoint");
+        System.err.println("  --memory N[K|M|G]     memoria per il calcolo; oltre, chudnovsky usa operandi su disco");
+        System.err.println("  --work-dir DIR        cartella dei file temporanei del calcolo su disco");
+        System.err.println("  --serve PORT          servizio HTTP GET /pi?from=A&to=B, con --output come file delle cifre");
+        System.err.println("  --metrics FILE        aggiunge al file le metriche del calcolo (una riga JSON)");
+        System.err.println("  --digits-per-line N   cifre per riga (predefinito: tutte su una riga)");
+        System.err.println("  --group N             cifre per gruppo separate da spazi (predefinito: nessun gruppo)");
+    }
+
+    /**
+     * Listener che riporta l'avanzamento su standard error
+     */
+    private static final class ConsoleListener implements CalculationListener {
+        private volatile boolean stopped;
+        private int lastPercent = -1;
+        private String result;
+        private String error;
+
+        void stop() {
+            stopped = true;
+        }
+
+        @Override
+        public synchronized void onProgress(double progress) {
+            int percent = (int) (progress * 100);
+            if (percent / 10 > lastPercent / 10) {
+                lastPercent = percent;
+                System.err.println(String.format("Avanzamento: %d%%", percent));
+            }
+        }
+
+        @Override
+        public void onDigitsUpdate(String piValue) {
+        }
+
+        @Override
+        public void onComplete(String finalValue) {
+            result = finalValue;
+        }
+
+        @Override
+        public void onError(String error) {
+            this.error = error;
+        }
+
+        @Override
+        public boolean isStopped() {
+            return stopped;
+        }
+    }
+}
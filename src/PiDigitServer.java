@@ -0,0 +1,270 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Servizio HTTP locale delle cifre di Pi Greco: GET /pi?from=A&to=B restituisce in text/plain
+ * le cifre decimali dalla posizione A alla B comprese (la prima dopo la virgola è la 1; from vale 1
+ * se omesso). Le cifre vengono lette da un file "3.1415..." e trasferite con FileChannel.transferTo;
+ * una richiesta oltre le cifre disponibili avvia un solo calcolo di estensione in background
+ * (algoritmo di Chudnovsky, tramite CalculationScheduler e l'archivio del calcolatore) e le richieste
+ * concorrenti ne attendono la fine. Le richieste sono servite su thread virtuali se la JVM li
+ * supporta (Java 21+), altrimenti su un pool di thread
+ */
+public final class PiDigitServer implements AutoCloseable {
+
+    public static final String PATH = "/pi";
+
+    // Parte intera e virgola all'inizio del file
+    private static final String PREFIX = "3.";
+
+    // Cifre minime di un'estensione: le richieste piccole non richiedono un calcolo ciascuna
+    private static final long MIN_EXTENSION_DIGITS = 100_000;
+
+    // Connessioni in attesa di accettazione
+    private static final int BACKLOG = 1024;
+
+    private final Path digitsFile;
+    private final Path partialFile;
+    private final CalculationScheduler scheduler;
+    private final HttpServer server;
+    private final ExecutorService handlers;
+    private volatile long availableDigits;
+    private CompletableFuture<Void> extension;
+
+    /**
+     * @param calculator calcolatore usato per le estensioni, già configurato
+     * @param digitsFile file delle cifre: viene riusato se esiste e sostituito dopo ogni estensione
+     */
+    public PiDigitServer(PiCalculator calculator, Path digitsFile, InetSocketAddress address) throws IOException {
+        this.digitsFile = digitsFile.toAbsolutePath();
+        this.partialFile = this.digitsFile.resolveSibling(this.digitsFile.getFileName() + ".part");
+        this.availableDigits = storedDigits(this.digitsFile);
+        this.scheduler = new CalculationScheduler(calculator, 1);
+        this.handlers = requestExecutor();
+        this.server = HttpServer.create(address, BACKLOG);
+        this.server.createContext(PATH, this::handle);
+        this.server.setExecutor(handlers);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Cifre decimali disponibili senza calcolo
+     */
+    public long getAvailableDigits() {
+        return availableDigits;
+    }
+
+    /**
+     * Attende che siano disponibili almeno digits cifre, estendendo il file se necessario
+     */
+    public void awaitDigits(long digits) throws InterruptedException, ExecutionException {
+        if (digits > PiCalculator.MAX_STREAMED_DIGITS) {
+            throw new IllegalArgumentException("Cifre oltre il massimo: " + PiCalculator.MAX_STREAMED_DIGITS);
+        }
+        while (availableDigits < digits) {
+            extend(digits).get();
+        }
+    }
+
+    /**
+     * Estensione in corso, o una nuova se non ce n'è nessuna
+     * Una richiesta oltre l'estensione in corso ne attende la fine e poi ne avvia un'altra
+     */
+    private synchronized CompletableFuture<Void> extend(long digits) {
+        if (extension == null || extension.isDone()) {
+            // Ogni estensione aumenta le cifre di almeno la metà: poche estensioni per richieste crescenti
+            long available = availableDigits;
+            long target = Math.max(digits, Math.max(available + available / 2, MIN_EXTENSION_DIGITS));
+            int digitsToCompute = (int) Math.min(target, PiCalculator.MAX_STREAMED_DIGITS);
+            CalculationRequest request = new CalculationRequest(PiCalculator.ALGORITHM_CHUDNOVSKY, digitsToCompute)
+                    .withOutput(partialFile, 0, 0);
+            extension = scheduler.submit(request, null).getResult().thenRun(() -> publish(digitsToCompute));
+        }
+        return extension;
+    }
+
+    /**
+     * Sostituisce il file delle cifre con quello appena calcolato
+     * Le richieste in corso continuano a leggere il file precedente, già aperto
+     */
+    private void publish(long digits) {
+        try {
+            Files.move(partialFile, digitsFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        availableDigits = digits;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                send(exchange, 405, "Metodo non supportato: " + exchange.getRequestMethod());
+                return;
+            }
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            long from = parsePosition(query, "from", 1);
+            long to = parsePosition(query, "to", -1);
+            if (to < from) {
+                throw new IllegalArgumentException("Intervallo non valido: " + from + "-" + to);
+            }
+            awaitDigits(to);
+            transfer(exchange, from, to);
+        } catch (IllegalArgumentException e) {
+            send(exchange, 400, e.getMessage());
+        } catch (ExecutionException e) {
+            send(exchange, 500, "Calcolo non riuscito: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            send(exchange, 503, "Servizio in chiusura");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Trasferisce le cifre from-to dal file al corpo della risposta con transferTo, senza buffer dell'applicazione
+     */
+    private void transfer(HttpExchange exchange, long from, long to) throws IOException {
+        long count = to - from + 1;
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=US-ASCII");
+        exchange.sendResponseHeaders(200, count);
+        try (FileChannel file = FileChannel.open(digitsFile, StandardOpenOption.READ);
+             OutputStream body = exchange.getResponseBody()) {
+            WritableByteChannel channel = Channels.newChannel(body);
+            long position = PREFIX.length() + from - 1;
+            while (count > 0) {
+                long transferred = file.transferTo(position, count, channel);
+                if (transferred <= 0) {
+                    throw new IOException("File delle cifre troncato: " + digitsFile);
+                }
+                position += transferred;
+                count -= transferred;
+            }
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] body = (message + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=UTF-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) throws IOException {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0) {
+                query.put(URLDecoder.decode(pair.substring(0, equals), "UTF-8"),
+                          URLDecoder.decode(pair.substring(equals + 1), "UTF-8"));
+            }
+        }
+        return query;
+    }
+
+    /**
+     * Posizione di una cifra decimale (da 1); defaultValue negativo la rende obbligatoria
+     */
+    private static long parsePosition(Map<String, String> query, String name, long defaultValue) {
+        String value = query.get(name);
+        if (value == null) {
+            if (defaultValue < 0) {
+                throw new IllegalArgumentException("Parametro mancante: " + name);
+            }
+            return defaultValue;
+        }
+        try {
+            long position = Long.parseLong(value);
+            if (position < 1) {
+                throw new IllegalArgumentException("Posizione non valida: " + name + "=" + value);
+            }
+            return position;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Posizione non valida: " + name + "=" + value);
+        }
+    }
+
+    /**
+     * Cifre decimali di un file "3.1415..." esistente, 0 se assente o non riconosciuto
+     */
+    private static long storedDigits(Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer prefix = ByteBuffer.allocate(PREFIX.length());
+            while (prefix.hasRemaining()) {
+                if (channel.read(prefix) < 0) {
+                    return 0;
+                }
+            }
+            if (!PREFIX.equals(new String(prefix.array(), StandardCharsets.US_ASCII))) {
+                return 0;
+            }
+            return channel.size() - PREFIX.length();
+        }
+    }
+
+    /**
+     * Un thread virtuale per richiesta se disponibili (Java 21+), altrimenti un pool di thread daemon
+     */
+    private static ExecutorService requestExecutor() {
+        try {
+            Method virtual = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) virtual.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicLong count = new AtomicLong();
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "pi-http-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Ferma il servizio: le richieste in corso hanno fino a un secondo per concludersi
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        scheduler.close();
+        handlers.shutdownNow();
+    }
+}
@@ -13,7 +13,10 @@ import javafx.scene.control.TextArea;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.concurrent.atomic.AtomicBoolean;
+import javax.management.JMException;
 
 /**
  * Calcolatore Pi Greco - Implementazione matematicamente corretta
@@ -23,6 +26,7 @@ public class PiGrecoCalculator extends Application {
     
     private ComboBox<String> algorithmComboBox;
     private Spinner<Integer> digitsSpinner;
+    private Spinner<Integer> threadsSpinner;
     private Button startButton;
     private Button stopButton;
     private Button clearButton;
@@ -36,8 +40,11 @@ public class PiGrecoCalculator extends Application {
     private AtomicBoolean isCalculating = new AtomicBoolean(false);
     private AtomicBoolean shouldStop = new AtomicBoolean(false);
     private long startTime;
-    private Thread calculationThread;
     private PiCalculator calculator;
+    private CalculationScheduler scheduler;
+    private CalculationScheduler.Job currentJob;
+    private Path dataDirectory;
+    private volatile Path outputFile;
     
     @Override
     public void start(Stage primaryStage) {
@@ -85,12 +92,29 @@ public class PiGrecoCalculator extends Application {
             algorithmLabel
         );
         
-        Scene scene = new Scene(root, 700, 450);
+        Scene scene = new Scene(root, 700, 480);
         primaryStage.setScene(scene);
         primaryStage.show();
         
-        // Inizializza il calcolatore
+        // Inizializza il calcolatore con l'archivio delle cifre e il checkpoint nella cartella utente
+        dataDirectory = Paths.get(System.getProperty("user.home"), ".pi_greco_calculator");
         calculator = new PiCalculator();
+        calculator.setDigitCache(new DigitCache(dataDirectory.resolve("pi.digits")));
+        
+        // Un calcolo fermato riprende dal checkpoint alla successiva esecuzione
+        calculator.setCheckpoint(new Checkpoint(dataDirectory.resolve("chudnovsky.checkpoint")));
+        calculator.setResumeFromCheckpoint(true);
+        
+        // Le metriche di ogni calcolo sono esposte via JMX e aggiunte a metrics.jsonl
+        calculator.setMetricsFile(dataDirectory.resolve("metrics.jsonl"));
+        try {
+            PerformanceMonitor.register();
+        } catch (JMException e) {
+            // Il monitoraggio JMX è facoltativo
+        }
+        
+        // I calcoli passano dalla coda dei job: un job fermato non riceve altri aggiornamenti
+        scheduler = new CalculationScheduler(calculator, 1);
     }
     
     private VBox createControlPanel() {
@@ -104,24 +128,34 @@ public class PiGrecoCalculator extends Application {
         
         algorithmComboBox = new ComboBox<>();
         algorithmComboBox.getItems().addAll(
-            "Formula di Machin",
-            "Algoritmo di Chudnovsky",
-            "Validazione Incrociata (Entrambi)"
+            PiCalculator.ALGORITHM_MACHIN,
+            PiCalculator.ALGORITHM_CHUDNOVSKY,
+            PiCalculator.ALGORITHM_CROSS_VALIDATION
         );
-        algorithmComboBox.setValue("Formula di Machin");
+        algorithmComboBox.setValue(PiCalculator.ALGORITHM_MACHIN);
         algorithmComboBox.setPrefWidth(200);
         algorithmBox.getChildren().add(algorithmComboBox);
         
         // Selezione cifre decimali
         HBox digitsBox = new HBox(10);
         digitsBox.setAlignment(Pos.CENTER);
-        digitsBox.getChildren().add(new Label("Cifre decimali (max 100):"));
+        digitsBox.getChildren().add(new Label(String.format("Cifre decimali (max %,d):", PiCalculator.MAX_DIGITS)));
         
-        digitsSpinner = new Spinner<>(3, 100, 10);
+        digitsSpinner = new Spinner<>(3, PiCalculator.MAX_DIGITS, 10);
         digitsSpinner.setEditable(true);
-        digitsSpinner.setPrefWidth(100);
+        digitsSpinner.setPrefWidth(130);
         digitsBox.getChildren().add(digitsSpinner);
         
+        // Selezione numero di thread (1 = sequenziale)
+        HBox threadsBox = new HBox(10);
+        threadsBox.setAlignment(Pos.CENTER);
+        threadsBox.getChildren().add(new Label("Thread di calcolo:"));
+        
+        int processors = Runtime.getRuntime().availableProcessors();
+        threadsSpinner = new Spinner<>(1, processors, processors);
+        threadsSpinner.setPrefWidth(100);
+        threadsBox.getChildren().add(threadsSpinner);
+        
         // Pulsanti controllo
         HBox buttonBox = new HBox(10);
         buttonBox.setAlignment(Pos.CENTER);
@@ -138,7 +172,7 @@ public class PiGrecoCalculator extends Application {
         
         buttonBox.getChildren().addAll(startButton, stopButton, clearButton);
         
-        panel.getChildren().addAll(algorithmBox, digitsBox, buttonBox);
+        panel.getChildren().addAll(algorithmBox, digitsBox, threadsBox, buttonBox);
         return panel;
     }
     
@@ -153,7 +187,7 @@ public class PiGrecoCalculator extends Application {
                 tempDigits = Integer.parseInt(editorText);
                 // Verifica che sia nel range valido
                 if (tempDigits < 3) tempDigits = 3;
-                if (tempDigits > 100) tempDigits = 100;
+                if (tempDigits > PiCalculator.MAX_DIGITS) tempDigits = PiCalculator.MAX_DIGITS;
                 // Aggiorna lo spinner con il valore corretto
                 digitsSpinner.getValueFactory().setValue(tempDigits);
             } else {
@@ -167,6 +201,7 @@ public class PiGrecoCalculator extends Application {
         
         final int targetDigits = tempDigits;
         String algorithm = algorithmComboBox.getValue();
+        calculator.setParallelism(threadsSpinner.getValue());
         
         isCalculating.set(true);
         shouldStop.set(false);
@@ -175,6 +210,7 @@ public class PiGrecoCalculator extends Application {
         updateButtonStates(true);
         algorithmComboBox.setDisable(true);
         digitsSpinner.setDisable(true);
+        threadsSpinner.setDisable(true);
         
         // Mostra barra di progresso e reset etichette tempo
         progressBar.setProgress(0);
@@ -185,29 +221,20 @@ public class PiGrecoCalculator extends Application {
         statusLabel.setText("Calcolo in corso...");
         algorithmLabel.setText("Algoritmo: " + algorithm);
         
-        calculationThread = new Thread(() -> {
-            try {
-                CalculationCallback callback = new CalculationCallback();
-                if ("Validazione Incrociata (Entrambi)".equals(algorithm)) {
-                    calculator.calculatePiWithCrossValidation(targetDigits, callback);
-                } else {
-                    calculator.calculatePi(algorithm, targetDigits, callback);
-                }
-            } catch (Exception e) {
-                Platform.runLater(() -> {
-                    statusLabel.setText("Errore: " + e.getMessage());
-                    resetControls();
-                });
-            }
-        });
-        
-        calculationThread.start();
+        CalculationRequest request = new CalculationRequest(algorithm, targetDigits);
+        outputFile = null;
+        if (!PiCalculator.ALGORITHM_CROSS_VALIDATION.equals(algorithm) && targetDigits > PiCalculator.PREVIEW_DIGITS) {
+            // Risultati grandi: cifre complete su file, solo un'anteprima nell'area risultati
+            outputFile = dataDirectory.resolve("pi_" + targetDigits + ".txt");
+            request = request.withOutput(outputFile, 100, 10);
+        }
+        currentJob = scheduler.submit(request, new CalculationCallback());
     }
     
     private void handleStop() {
         shouldStop.set(true);
-        if (calculationThread != null && calculationThread.isAlive()) {
-            calculationThread.interrupt();
+        if (currentJob != null) {
+            currentJob.cancel();
         }
         resetControls();
         statusLabel.setText("Calcolo interrotto dall'utente");
@@ -234,18 +261,20 @@ public class PiGrecoCalculator extends Application {
         updateButtonStates(false);
         algorithmComboBox.setDisable(false);
         digitsSpinner.setDisable(false);
+        threadsSpinner.setDisable(false);
         progressBar.setVisible(false);
         timeLabel.setText("");
         etaLabel.setText("");
     }
     
     /**
-     * Callback per aggiornamenti dal calcolatore
+     * Callback per aggiornamenti dal calcolatore verso l'interfaccia JavaFX
      */
-    public class CalculationCallback {
+    public class CalculationCallback implements CalculationListener {
         private double lastProgress = 0;
         private long lastUpdateTime = 0;
         
+        @Override
         public void onProgress(double progress) {
             Platform.runLater(() -> {
                 progressBar.setProgress(progress);
@@ -274,14 +303,17 @@ public class PiGrecoCalculator extends Application {
             });
         }
         
+        @Override
         public void onDigitsUpdate(String piValue) {
             Platform.runLater(() -> resultArea.setText(piValue));
         }
         
+        @Override
         public void onComplete(String finalValue) {
             Platform.runLater(() -> {
                 progressBar.setProgress(1.0);
-                resultArea.setText(finalValue);
+                Path savedFile = outputFile;
+                resultArea.setText(savedFile != null ? finalValue + "\n\n[Cifre complete salvate in: " + savedFile + "]" : finalValue);
                 long totalTime = System.currentTimeMillis() - startTime;
                 statusLabel.setText(String.format("Calcolo completato in %ds - Valore matematicamente corretto!", totalTime / 1000));
                 etaLabel.setText("Completato!");
@@ -289,6 +321,7 @@ public class PiGrecoCalculator extends Application {
             });
         }
         
+        @Override
         public void onError(String error) {
             Platform.runLater(() -> {
                 statusLabel.setText("Errore: " + error);
@@ -300,6 +333,7 @@ public class PiGrecoCalculator extends Application {
             return false;
         }
         
+        @Override
         public boolean isStopped() {
             return shouldStop.get() || !isCalculating.get();
         }
@@ -0,0 +1,100 @@
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Listener che disaccoppia il calcolo dal listener dell'applicazione
+ * Il calcolo scrive solo l'ultimo avanzamento in uno slot atomico e legge un flag volatile
+ * di annullamento; un thread di servizio consegna al listener lo stato più recente a frequenza fissa,
+ * scartando gli aggiornamenti intermedi, e aggiorna il flag da listener.isStopped().
+ * Completamento ed errore vengono consegnati subito, dopo l'ultimo avanzamento in attesa
+ */
+public final class ProgressPublisher implements CalculationListener, AutoCloseable {
+
+    // Intervallo predefinito tra due consegne (10 Hz)
+    public static final long DEFAULT_INTERVAL_MILLIS = 100;
+
+    // Valore dello slot senza avanzamenti da consegnare (un NaN: l'avanzamento non lo è mai)
+    private static final long NONE = -1L;
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "pi-progress");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final CalculationListener listener;
+    private final AtomicLong pendingProgress = new AtomicLong(NONE);
+    private final AtomicReference<String> pendingDigits = new AtomicReference<>();
+    private final ScheduledFuture<?> delivery;
+    private volatile boolean stopped;
+
+    public ProgressPublisher(CalculationListener listener) {
+        this(listener, DEFAULT_INTERVAL_MILLIS);
+    }
+
+    public ProgressPublisher(CalculationListener listener, long intervalMillis) {
+        if (intervalMillis < 1) {
+            throw new IllegalArgumentException("Intervallo non valido: " + intervalMillis);
+        }
+        this.listener = listener;
+        this.stopped = listener.isStopped();
+        this.delivery = SCHEDULER.scheduleAtFixedRate(this::flush, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void onProgress(double progress) {
+        pendingProgress.set(Double.doubleToRawLongBits(progress));
+    }
+
+    @Override
+    public void onDigitsUpdate(String piValue) {
+        pendingDigits.set(piValue);
+    }
+
+    @Override
+    public void onComplete(String finalValue) {
+        flush();
+        listener.onComplete(finalValue);
+    }
+
+    @Override
+    public void onError(String error) {
+        flush();
+        listener.onError(error);
+    }
+
+    @Override
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Consegna lo stato in attesa e aggiorna il flag di annullamento
+     */
+    private synchronized void flush() {
+        if (!stopped && listener.isStopped()) {
+            stopped = true;
+        }
+        long progress = pendingProgress.getAndSet(NONE);
+        if (progress != NONE) {
+            listener.onProgress(Double.longBitsToDouble(progress));
+        }
+        String digits = pendingDigits.getAndSet(null);
+        if (digits != null) {
+            listener.onDigitsUpdate(digits);
+        }
+    }
+
+    /**
+     * Ferma le consegne periodiche dopo aver consegnato lo stato in attesa
+     */
+    @Override
+    public void close() {
+        delivery.cancel(false);
+        flush();
+    }
+}
@@ -0,0 +1,159 @@
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Conversione binario-decimale divide et impera per risultati di grandi dimensioni
+ * Il numero viene diviso ricorsivamente per potenze di dieci 10^(LEAF_DIGITS * 2^k),
+ * calcolate una sola volta per conversione; i blocchi foglia sono convertiti in parallelo.
+ * Le cifre sono consegnate alla destinazione in ordine, a blocchi di BLOCK_DIGITS cifre:
+ * il testo completo del risultato non viene mai costruito in memoria
+ */
+public class RadixConverter {
+
+    // Cifre convertite direttamente con BigInteger.toString
+    private static final int LEAF_DIGITS = 2048;
+
+    // Cifre consegnate alla destinazione per ogni blocco
+    private static final int BLOCK_DIGITS = LEAF_DIGITS << 9;
+
+    private final ForkJoinPool pool;
+
+    // powers.get(k) = 10^(LEAF_DIGITS * 2^k)
+    private final List<BigInteger> powers = new ArrayList<>();
+
+    /**
+     * @param pool pool per la conversione parallela dei blocchi, null per la conversione sequenziale
+     */
+    public RadixConverter(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Scrive la parte intera e le prime digits cifre decimali (troncate) di un valore non negativo
+     */
+    public void write(BigDecimal value, int digits, DigitSink sink) throws IOException {
+        if (value.signum() < 0) {
+            throw new IllegalArgumentException("Valore negativo non supportato");
+        }
+        BigInteger scaled = value.setScale(digits, RoundingMode.DOWN).unscaledValue();
+        BigInteger[] parts = scaled.divideAndRemainder(BigInteger.TEN.pow(digits));
+
+        sink.begin(parts[0].toString(), digits);
+        preparePowers(digits);
+        emit(parts[1], digits, sink);
+        sink.end();
+    }
+
+    /**
+     * Scrive, senza begin ed end, le prime digits cifre decimali (troncate) della frazione
+     * x / 2^(8 * fractionBytes), con 0 <= x < 2^(8 * fractionBytes)
+     * Usato dalla conversione su disco per le frazioni che stanno in memoria
+     */
+    void writeFraction(BigInteger x, long fractionBytes, int digits, DigitSink sink) throws IOException {
+        BigInteger scaled = NttMultiplier.multiply(x, BigInteger.TEN.pow(digits)).shiftRight(Math.toIntExact(8 * fractionBytes));
+        preparePowers(digits);
+        emit(scaled, digits, sink);
+    }
+
+    /**
+     * Calcola in anticipo tutte le potenze necessarie, così i task paralleli le leggono soltanto
+     */
+    private void preparePowers(long digits) {
+        if (powers.isEmpty()) {
+            powers.add(BigInteger.TEN.pow(LEAF_DIGITS));
+        }
+        while (((long) LEAF_DIGITS << powers.size()) < digits) {
+            BigInteger last = powers.get(powers.size() - 1);
+            powers.add(NttMultiplier.square(last));
+        }
+    }
+
+    /**
+     * Indice della potenza 10^(LEAF_DIGITS * 2^k) con LEAF_DIGITS * 2^k < digits massimo:
+     * la parte bassa contiene almeno metà delle cifre
+     */
+    private static int splitIndex(long digits) {
+        int k = 0;
+        while (((long) LEAF_DIGITS << (k + 1)) < digits) {
+            k++;
+        }
+        return k;
+    }
+
+    /**
+     * Consegna le cifre in ordine: i livelli alti vengono divisi in sequenza, i blocchi convertiti in parallelo
+     */
+    private void emit(BigInteger x, long digits, DigitSink sink) throws IOException {
+        if (digits <= BLOCK_DIGITS) {
+            byte[] block = new byte[(int) digits];
+            convert(x, (int) digits, block, 0);
+            sink.write(block, 0, block.length);
+            return;
+        }
+        int k = splitIndex(digits);
+        long low = (long) LEAF_DIGITS << k;
+        BigInteger[] parts = x.divideAndRemainder(powers.get(k));
+        emit(parts[0], digits - low, sink);
+        emit(parts[1], low, sink);
+    }
+
+    private void convert(BigInteger x, int digits, byte[] out, int offset) {
+        if (pool == null || pool.getParallelism() <= 1 || digits <= LEAF_DIGITS) {
+            new ConvertTask(x, digits, out, offset).compute();
+        } else {
+            pool.invoke(new ConvertTask(x, digits, out, offset));
+        }
+    }
+
+    /**
+     * Conversione ricorsiva di un blocco nella sua porzione dell'array di destinazione
+     */
+    private final class ConvertTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final BigInteger x;
+        private final int digits;
+        private final byte[] out;
+        private final int offset;
+
+        ConvertTask(BigInteger x, int digits, byte[] out, int offset) {
+            this.x = x;
+            this.digits = digits;
+            this.out = out;
+            this.offset = offset;
+        }
+
+        @Override
+        protected void compute() {
+            if (digits <= LEAF_DIGITS) {
+                // Zeri iniziali fino alla lunghezza del blocco
+                String text = x.toString();
+                int padding = digits - text.length();
+                for (int i = 0; i < padding; i++) {
+                    out[offset + i] = '0';
+                }
+                for (int i = 0; i < text.length(); i++) {
+                    out[offset + padding + i] = (byte) text.charAt(i);
+                }
+                return;
+            }
+            int k = splitIndex(digits);
+            int low = LEAF_DIGITS << k;
+            BigInteger[] parts = x.divideAndRemainder(powers.get(k));
+            ConvertTask high = new ConvertTask(parts[0], digits - low, out, offset);
+            ConvertTask rest = new ConvertTask(parts[1], low, out, offset + digits - low);
+            if (inForkJoinPool()) {
+                invokeAll(high, rest);
+            } else {
+                high.compute();
+                rest.compute();
+            }
+        }
+    }
+}